@@ -0,0 +1,166 @@
+/*
+ * BookBuilder.java
+ *
+ * This is a command-line entry point that builds an OpeningBook offline. It plays the opening
+ * pieces of many seeded games with a deep, untimed BeamSearch. Each position it reaches is
+ * recorded with the move the search chose, keyed by the board and the queue prefix, and the
+ * game continues along that move. The finished book is written in the versioned book format,
+ * ready for bots to map at startup.
+ *
+ * Author: Justin Morgan
+ * Last Updated Date: 12/09/2024
+ *
+ * Usage:
+ *   - java main.java.tetris.BookBuilder [--games N] [--seed S] [--generator MODE]
+ *         [--opening-pieces P] [--queue-length Q] [--depth D] [--beam-width W]
+ *         [--max-entries E] [--output FILE]
+ *   - Positions that are already in the book are played from the book, not searched again.
+ *
+ * Dependencies:
+ *   - OpeningBook.Builder for collecting entries and writing the file
+ *   - BeamSearch and GameEngine for choosing and playing the moves
+ */
+
+package main.java.tetris;
+
+import main.java.tetris.ai.BeamSearch;
+import main.java.tetris.ai.HeuristicWeights;
+import main.java.tetris.ai.OpeningBook;
+import main.java.tetris.ai.Placement;
+import main.java.tetris.mechanics.GameEngine;
+import main.java.tetris.mechanics.GameInput;
+import main.java.tetris.mechanics.PieceGenerator;
+import main.java.tetris.model.GameBoard;
+import main.java.tetris.model.PieceType;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+
+public class BookBuilder {
+
+    private static final String USAGE = "Usage: java main.java.tetris.BookBuilder [--games N] [--seed S]"
+            + " [--generator uniform|seven_bag|history] [--opening-pieces P] [--queue-length Q]"
+            + " [--depth D] [--beam-width W] [--max-entries E] [--output FILE]";
+
+    private int games = 1000;
+    private long seed = 1;
+    private PieceGenerator.Mode mode = PieceGenerator.Mode.SEVEN_BAG;
+    private int openingPieces = 6;
+    private int queueLength = 3;
+    private int depth = 4;
+    private int beamWidth = 32;
+    private int maxEntries = 100_000;
+    private Path output = OpeningBook.DEFAULT_PATH;
+
+    /*
+     * Builds and writes the book described by the command-line options.
+     * Exits with status 1 if the options are invalid or the file cannot be written.
+     */
+    public static void main(String[] args) {
+        BookBuilder builder = new BookBuilder();
+        try {
+            builder.parse(args);
+            builder.run();
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(1);
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    // Reads the command-line options into this builder's settings.
+    private void parse(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + option);
+            }
+            String value = args[++i];
+            try {
+                switch (option) {
+                    case "--games" -> games = Integer.parseInt(value);
+                    case "--seed" -> seed = Long.parseLong(value);
+                    case "--generator" -> mode = PieceGenerator.Mode.valueOf(value.toUpperCase(Locale.ROOT));
+                    case "--opening-pieces" -> openingPieces = Integer.parseInt(value);
+                    case "--queue-length" -> queueLength = Integer.parseInt(value);
+                    case "--depth" -> depth = Integer.parseInt(value);
+                    case "--beam-width" -> beamWidth = Integer.parseInt(value);
+                    case "--max-entries" -> maxEntries = Integer.parseInt(value);
+                    case "--output" -> output = Paths.get(value);
+                    default -> throw new IllegalArgumentException("Unknown option: " + option);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid value for " + option + ": " + value);
+            }
+        }
+        if (games < 1 || openingPieces < 1 || queueLength < 1 || depth < 1 || beamWidth < 1) {
+            throw new IllegalArgumentException("All counts must be positive");
+        }
+    }
+
+    // Plays the opening of every game, collecting entries until the book is full.
+    private void run() throws IOException {
+        GameEngine engine = new GameEngine(PieceGenerator.create(mode, seed));
+        GameBoard board = engine.getGameBoard();
+        if (queueLength > engine.getPreviewSize() + 1) {
+            throw new IllegalArgumentException("Queue length cannot exceed " + (engine.getPreviewSize() + 1));
+        }
+        OpeningBook.Builder book = new OpeningBook.Builder(board.getWidth(), board.getHeight(), queueLength, maxEntries);
+        BeamSearch search = new BeamSearch(HeuristicWeights.DEFAULT, depth, beamWidth, Long.MAX_VALUE);
+        long start = System.nanoTime();
+
+        for (int game = 0; game < games && !book.isFull(); game++) {
+            engine.reset(seed + game);
+            for (int piece = 0; piece < openingPieces && !engine.isGameOver() && !book.isFull(); piece++) {
+                PieceType[] pieces = queue(engine);
+                // Follow the move recorded the first time this position was seen, if any
+                Placement placement = book.get(board, pieces);
+                if (placement == null) {
+                    placement = chooseAndAdd(search, book, board, pieces);
+                }
+                if (placement == null) {
+                    break;
+                }
+                play(engine, placement);
+            }
+        }
+
+        book.write(output);
+        System.out.printf("Wrote %d entries to %s in %.1f s%n", book.size(), output,
+                (System.nanoTime() - start) / 1e9);
+    }
+
+    // Searches a new position, records the chosen move, and returns it (null if there is none).
+    private static Placement chooseAndAdd(BeamSearch search, OpeningBook.Builder book, GameBoard board,
+                                          PieceType[] pieces) {
+        BeamSearch.Result result = search.search(board, pieces);
+        if (result == null) {
+            return null;
+        }
+        book.add(board, pieces, result.getPlacement());
+        return result.getPlacement();
+    }
+
+    // Reads the current piece and the whole preview queue from the engine.
+    private static PieceType[] queue(GameEngine engine) {
+        PieceType[] pieces = new PieceType[engine.getPreviewSize() + 1];
+        pieces[0] = engine.getCurrentPiece().getType();
+        for (int i = 1; i < pieces.length; i++) {
+            pieces[i] = engine.getPreviewType(i - 1);
+        }
+        return pieces;
+    }
+
+    // Plays a placement's route on the engine and locks the piece.
+    private static void play(GameEngine engine, Placement placement) {
+        for (int i = 0; i < placement.getPathLength(); i++) {
+            engine.step(placement.getInput(i));
+        }
+        engine.step(GameInput.HARD_DROP);
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * GameSettings.java
+ *
+ * This class holds the game options chosen in the Options screen, so the start menu can
+ * pass them on when it creates a game. Settings last until the program exits.
+ *
+ * Author: Justin Morgan
+ * Last Updated Date: 12/09/2024
+ *
+ * Usage:
+ *   - Options sets the values as the player changes them.
+ *   - StartMenuActionHandler reads them when starting a Single-player or Multiplayer game.
+ */
+
+package main.java.tetris.Game;
+
+import main.java.tetris.model.ModelConstants;
+
+public final class GameSettings {
+
+    private static volatile boolean player1Bot;  // Whether a bot plays the left Multiplayer board
+    private static volatile boolean player2Bot;  // Whether a bot plays the right Multiplayer board
+    private static volatile int boardWidth = ModelConstants.BOARD_WIDTH;   // Single-player columns
+    private static volatile int boardHeight = ModelConstants.BOARD_HEIGHT; // Single-player rows
+
+    private GameSettings() {
+    }
+
+    // Returns whether a bot plays Player 1's board in Multiplayer.
+    public static boolean isPlayer1Bot() {
+        return player1Bot;
+    }
+
+    // Sets whether a bot plays Player 1's board in Multiplayer.
+    public static void setPlayer1Bot(boolean bot) {
+        player1Bot = bot;
+    }
+
+    // Returns whether a bot plays Player 2's board in Multiplayer.
+    public static boolean isPlayer2Bot() {
+        return player2Bot;
+    }
+
+    // Sets whether a bot plays Player 2's board in Multiplayer.
+    public static void setPlayer2Bot(boolean bot) {
+        player2Bot = bot;
+    }
+
+    // Returns the number of columns of the Single-player board.
+    public static int getBoardWidth() {
+        return boardWidth;
+    }
+
+    // Returns the number of rows of the Single-player board.
+    public static int getBoardHeight() {
+        return boardHeight;
+    }
+
+    // Sets the Single-player board size in columns and rows.
+    public static void setBoardSize(int width, int height) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Board size must be positive: " + width + "x" + height);
+        }
+        boardWidth = width;
+        boardHeight = height;
+    }
+}
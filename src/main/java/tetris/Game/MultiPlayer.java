@@ -3,22 +3,30 @@
  *
  * This class represents the Multiplayer mode for Tetris. It manages two game controllers,
  * key bindings for both players, and integrates with the MultiplayerUI for rendering.
+ * Either slot can be played by a BotPlayer instead of the keyboard.
  *
  * Author: Justin Morgan
  * Last Updated Date: 12/03/2024
  *
  * Features:
- * - Separate key bindings for two players (Player 1: WSAD, Player 2: Arrow keys).
+ * - Separate key bindings for two players (Player 1: WSAD + Space to hard drop,
+ *   Player 2: Arrow keys + Enter to hard drop).
  * - Integration with the MultiplayerUI for layout and game rendering.
  * - Centralized KeyListener for handling inputs for both players.
+ * - Optional bot players that restart automatically, for unattended play.
  *
  * Dependencies:
  * - MultiplayerUI for user interface setup and rendering.
  * - GameController for game mechanics.
+ * - BotPlayer and BeamSearch for computer-controlled players.
  */
 
 package main.java.tetris.Game;
 
+import main.java.tetris.ai.BeamSearch;
+import main.java.tetris.ai.BotPlayer;
+import main.java.tetris.ai.HeuristicWeights;
+import main.java.tetris.ai.OpeningBook;
 import main.java.tetris.utility.ImageUtils;
 import main.java.tetris.mechanics.GameController;
 import main.java.tetris.ui.multiplayerui.MultiplayerUI;
@@ -27,6 +35,7 @@ import java.awt.*;
 import java.util.Map;
 import javax.swing.*;
 import java.util.HashMap;
+import java.nio.file.Files;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyAdapter;
 
@@ -45,17 +54,27 @@ public class MultiPlayer extends JPanel {
     private static final int PLAYER1_MOVE_RIGHT = KeyEvent.VK_D;
     private static final int PLAYER1_MOVE_DOWN = KeyEvent.VK_S;
     private static final int PLAYER1_ROTATE = KeyEvent.VK_W;
+    private static final int PLAYER1_HARD_DROP = KeyEvent.VK_SPACE;
 
     // Key bindings for Player 2
     private static final int PLAYER2_MOVE_LEFT = KeyEvent.VK_LEFT;
     private static final int PLAYER2_MOVE_RIGHT = KeyEvent.VK_RIGHT;
     private static final int PLAYER2_MOVE_DOWN = KeyEvent.VK_DOWN;
     private static final int PLAYER2_ROTATE = KeyEvent.VK_UP;
+    private static final int PLAYER2_HARD_DROP = KeyEvent.VK_ENTER;
+
+    // Bot settings
+    private static final double BOT_ACTIONS_PER_SECOND = BotPlayer.DEFAULT_ACTIONS_PER_SECOND;
 
     // Background image to display
     private final Image backgroundImage;
 
     public MultiPlayer() {
+        this(false, false);
+    }
+
+    // Creates a Multiplayer game in which either player may be controlled by a bot.
+    public MultiPlayer(boolean player1Bot, boolean player2Bot) {
         // Load the background image using ImageUtils
         this.backgroundImage = ImageUtils.loadImage(BACKGROUND_IMAGE_PATH);
 
@@ -70,17 +89,19 @@ public class MultiPlayer extends JPanel {
         GameController player1Controller = new GameController(player1KeyBindings);
         GameController player2Controller = new GameController(player2KeyBindings);
 
-        // Populate Player 1 key bindings (WSAD)
-        player1KeyBindings.put(PLAYER1_MOVE_LEFT, player1Controller::moveLeft);
-        player1KeyBindings.put(PLAYER1_MOVE_RIGHT, player1Controller::moveRight);
-        player1KeyBindings.put(PLAYER1_MOVE_DOWN, player1Controller::moveDown);
-        player1KeyBindings.put(PLAYER1_ROTATE, player1Controller::rotate);
+        // Populate Player 1 key bindings (WSAD), unless a bot plays this slot
+        if (player1Bot) {
+            startBot(player1Controller);
+        } else {
+            bindPlayer1Keys(player1KeyBindings, player1Controller);
+        }
 
-        // Populate Player 2 key bindings (Arrow keys)
-        player2KeyBindings.put(PLAYER2_MOVE_LEFT, player2Controller::moveLeft);
-        player2KeyBindings.put(PLAYER2_MOVE_RIGHT, player2Controller::moveRight);
-        player2KeyBindings.put(PLAYER2_MOVE_DOWN, player2Controller::moveDown);
-        player2KeyBindings.put(PLAYER2_ROTATE, player2Controller::rotate);
+        // Populate Player 2 key bindings (Arrow keys), unless a bot plays this slot
+        if (player2Bot) {
+            startBot(player2Controller);
+        } else {
+            bindPlayer2Keys(player2KeyBindings, player2Controller);
+        }
 
         // Create MultiplayerUI and add it to the panel
         MultiplayerUI multiplayerUI = new MultiplayerUI(player1Controller, player2Controller);
@@ -118,6 +139,37 @@ public class MultiPlayer extends JPanel {
         requestFocusInWindow();
     }
 
+    // Binds Player 1's keys (WSAD and Space) to a controller.
+    private static void bindPlayer1Keys(Map<Integer, Runnable> keyBindings, GameController controller) {
+        keyBindings.put(PLAYER1_MOVE_LEFT, controller::moveLeft);
+        keyBindings.put(PLAYER1_MOVE_RIGHT, controller::moveRight);
+        keyBindings.put(PLAYER1_MOVE_DOWN, controller::moveDown);
+        keyBindings.put(PLAYER1_ROTATE, controller::rotate);
+        keyBindings.put(PLAYER1_HARD_DROP, controller::hardDrop);
+    }
+
+    // Binds Player 2's keys (Arrow keys and Enter) to a controller.
+    private static void bindPlayer2Keys(Map<Integer, Runnable> keyBindings, GameController controller) {
+        keyBindings.put(PLAYER2_MOVE_LEFT, controller::moveLeft);
+        keyBindings.put(PLAYER2_MOVE_RIGHT, controller::moveRight);
+        keyBindings.put(PLAYER2_MOVE_DOWN, controller::moveDown);
+        keyBindings.put(PLAYER2_ROTATE, controller::rotate);
+        keyBindings.put(PLAYER2_HARD_DROP, controller::hardDrop);
+    }
+
+    /*
+     * Lets a bot play a controller's game; it stops by itself when the game's loop shuts down.
+     * If an opening book has been built, the bot uses it (the file is mapped on first use).
+     */
+    private static void startBot(GameController controller) {
+        controller.setAutoRestart(true);
+        BeamSearch search = new BeamSearch(HeuristicWeights.DEFAULT);
+        if (Files.exists(OpeningBook.DEFAULT_PATH)) {
+            search.setOpeningBook(OpeningBook.open(OpeningBook.DEFAULT_PATH));
+        }
+        new BotPlayer(controller.getGameLoop(), search, BOT_ACTIONS_PER_SECOND).start();
+    }
+
     /*
      * Custom painting logic for the background.
      * Displays the background image if available, otherwise uses a fallback color.
@@ -2,11 +2,12 @@
  * Options.java
  *
  * This class provides the user option to adjust audio (sound and music) settings,
- * choose the track for music, and save the changes.
+ * choose the track for music, choose which Multiplayer boards a bot plays,
+ * pick the Single-player board size, and save the changes.
  * Author: Daniyar Alimkhanov
  * Last Updated Date: 11/11/2024
  *
- * Dependent: AudioManager
+ * Dependent: AudioManager, GameSettings
  */
 
 package main.java.tetris.Game;
@@ -39,12 +40,21 @@ public class Options extends JPanel {
     private static final Color SOUND_LABEL_COLOR = Color.BLUE;
     private static final Color TRACK_LABEL_COLOR = Color.GREEN;
     private static final Color TRACK_BUTTON_COLOR = Color.GREEN;
+    private static final Color PLAYERS_LABEL_COLOR = Color.ORANGE;
+    private static final Color BOARD_SIZE_LABEL_COLOR = Color.CYAN;
+
+    // Single-player board sizes offered, as {columns, rows}; the first is the standard board
+    private static final int[][] BOARD_SIZES = {{10, 20}, {20, 40}, {50, 100}, {200, 400}, {1000, 2000}};
 
     private JSlider musicVolume;
     private JSlider soundVolume;
     private JLabel trackLabel;
     private JButton leftButton;
     private JButton rightButton;
+    private JLabel boardSizeLabel;
+    private JButton smallerButton;
+    private JButton largerButton;
+    private int boardSizeIndex;
     private JButton backButton;
 
     public Options() {
@@ -56,6 +66,8 @@ public class Options extends JPanel {
         MusicControl(gbc);
         SoundControl(gbc);
         TrackSetup(gbc);
+        PlayerControl(gbc);
+        BoardSizeControl(gbc);
         SaveButton(gbc);
         BackButton(gbc);
     }
@@ -156,12 +168,99 @@ public class Options extends JPanel {
         return (dotIndex > 0) ? fileName.substring(0, dotIndex) : fileName;
     }
 
+    // Bot player selection for the Multiplayer boards
+    private void PlayerControl(GridBagConstraints gbc) {
+        JLabel playersLabel = new JLabel("Multiplayer Bots");
+        playersLabel.setForeground(PLAYERS_LABEL_COLOR);
+        playersLabel.setFont(new Font("Arial", Font.BOLD, FONT_SIZE_TITLE));
+
+        JCheckBox player1Bot = createBotCheckBox("Player 1", GameSettings.isPlayer1Bot());
+        player1Bot.addActionListener(e -> GameSettings.setPlayer1Bot(player1Bot.isSelected()));
+        JCheckBox player2Bot = createBotCheckBox("Player 2", GameSettings.isPlayer2Bot());
+        player2Bot.addActionListener(e -> GameSettings.setPlayer2Bot(player2Bot.isSelected()));
+
+        JPanel playersPanel = new JPanel();
+        playersPanel.setLayout(new FlowLayout());
+        playersPanel.setBackground(BACKGROUND_COLOR);
+        playersPanel.add(player1Bot);
+        playersPanel.add(player2Bot);
+
+        gbc.gridy = 6;
+        add(playersLabel, gbc);
+        gbc.gridy = 7;
+        add(playersPanel, gbc);
+    }
+
+    // Creates a check box that marks a Multiplayer slot as bot-controlled
+    private JCheckBox createBotCheckBox(String text, boolean selected) {
+        JCheckBox checkBox = new JCheckBox(text, selected);
+        checkBox.setFont(new Font("Arial", Font.BOLD, FONT_SIZE_TRACK));
+        checkBox.setForeground(Color.WHITE);
+        checkBox.setBackground(BACKGROUND_COLOR);
+        return checkBox;
+    }
+
+    // Single-player board size selector/position control function
+    private void BoardSizeControl(GridBagConstraints gbc) {
+        JLabel boardSizeTitle = new JLabel("Board Size");
+        boardSizeTitle.setForeground(BOARD_SIZE_LABEL_COLOR);
+        boardSizeTitle.setFont(new Font("Arial", Font.BOLD, FONT_SIZE_TITLE));
+
+        boardSizeIndex = 0;
+        for (int i = 0; i < BOARD_SIZES.length; i++) {
+            if (BOARD_SIZES[i][0] == GameSettings.getBoardWidth() && BOARD_SIZES[i][1] == GameSettings.getBoardHeight()) {
+                boardSizeIndex = i;
+            }
+        }
+        boardSizeLabel = new JLabel(boardSizeText(boardSizeIndex));
+        boardSizeLabel.setFont(new Font("Arial", Font.BOLD, FONT_SIZE_TRACK));
+        boardSizeLabel.setForeground(Color.WHITE);
+
+        smallerButton = new JButton("<");
+        largerButton = new JButton(">");
+        smallerButton.setBackground(TRACK_BUTTON_COLOR);
+        smallerButton.setForeground(Color.BLACK);
+        largerButton.setBackground(TRACK_BUTTON_COLOR);
+        largerButton.setForeground(Color.BLACK);
+        smallerButton.addActionListener(this::changeBoardSize);
+        largerButton.addActionListener(this::changeBoardSize);
+
+        JPanel boardSizePanel = new JPanel();
+        boardSizePanel.setLayout(new FlowLayout());
+        boardSizePanel.setBackground(BACKGROUND_COLOR);
+        boardSizePanel.add(smallerButton);
+        boardSizePanel.add(boardSizeLabel);
+        boardSizePanel.add(largerButton);
+
+        gbc.gridy = 8;
+        add(boardSizeTitle, gbc);
+        gbc.gridy = 9;
+        add(boardSizePanel, gbc);
+    }
+
+    // Logic to step through the board sizes using left/right buttons
+    private void changeBoardSize(ActionEvent e) {
+        if (e.getSource() == smallerButton) {
+            boardSizeIndex = (boardSizeIndex - 1 + BOARD_SIZES.length) % BOARD_SIZES.length;
+        } else if (e.getSource() == largerButton) {
+            boardSizeIndex = (boardSizeIndex + 1) % BOARD_SIZES.length;
+        }
+        GameSettings.setBoardSize(BOARD_SIZES[boardSizeIndex][0], BOARD_SIZES[boardSizeIndex][1]);
+        boardSizeLabel.setText(boardSizeText(boardSizeIndex));
+    }
+
+    // Formats a board size preset as columns x rows
+    private String boardSizeText(int index) {
+        String size = BOARD_SIZES[index][0] + " x " + BOARD_SIZES[index][1];
+        return index == 0 ? size + " (Standard)" : size;
+    }
+
     // Creates the save button
     private void SaveButton(GridBagConstraints gbc) {
         JButton saveButton = new JButton("Save");
         saveButton.setPreferredSize(new Dimension(BUTTON_WIDTH, BUTTON_HEIGHT));
         saveButton.addActionListener(e -> saveSettings());
-        gbc.gridy = 6;
+        gbc.gridy = 10;
         add(saveButton, gbc);
     }
 
@@ -189,7 +288,7 @@ public class Options extends JPanel {
             frame.revalidate();
             frame.repaint();
         });
-        gbc.gridy = 7;
+        gbc.gridy = 11;
         add(backButton, gbc);
     }
 }
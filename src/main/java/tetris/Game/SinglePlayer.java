@@ -22,6 +22,7 @@ package main.java.tetris.Game;
 
 import main.java.tetris.utility.ImageUtils;
 import main.java.tetris.mechanics.GameController;
+import main.java.tetris.model.ModelConstants;
 import main.java.tetris.ui.singleplayerui.SinglePlayerUI;
 
 import java.awt.*;
@@ -45,6 +46,7 @@ public class SinglePlayer extends JPanel {
     private static final int MOVE_RIGHT_KEY = KeyEvent.VK_RIGHT;
     private static final int MOVE_DOWN_KEY = KeyEvent.VK_DOWN;
     private static final int ROTATE_KEY = KeyEvent.VK_UP;
+    private static final int HARD_DROP_KEY = KeyEvent.VK_SPACE;
 
     // Background image to display
     private final Image backgroundImage;
@@ -57,6 +59,14 @@ public class SinglePlayer extends JPanel {
      * Sets up the game controller, user interface, and background display.
      */
     public SinglePlayer() {
+        this(ModelConstants.BOARD_WIDTH, ModelConstants.BOARD_HEIGHT);
+    }
+
+    /*
+     * Constructor for SinglePlayer mode on a board of custom size (for sandbox and stress runs).
+     * The board is scaled to fit the same on-screen area as the standard 10x20 board.
+     */
+    public SinglePlayer(int boardWidth, int boardHeight) {
         // Load the background image using ImageUtils
         this.backgroundImage = ImageUtils.loadImage(BACKGROUND_IMAGE_PATH);
 
@@ -65,7 +75,7 @@ public class SinglePlayer extends JPanel {
         setPreferredSize(new Dimension(PANEL_WIDTH, PANEL_HEIGHT));
 
         // Initialize the game controller
-        initializeGameController();
+        initializeGameController(boardWidth, boardHeight);
 
         // Initialize user interface components
         initializeUI();
@@ -75,18 +85,19 @@ public class SinglePlayer extends JPanel {
     }
 
     // Initializes the game controller and configures key bindings for gameplay.
-    private void initializeGameController() {
+    private void initializeGameController(int boardWidth, int boardHeight) {
         // Create the key bindings map for user controls
         Map<Integer, Runnable> keyBindings = new HashMap<>();
 
         // Instantiate the game controller
-        gameController = new GameController(keyBindings);
+        gameController = new GameController(keyBindings, boardWidth, boardHeight);
 
         // Define key bindings for single-player gameplay
         keyBindings.put(MOVE_LEFT_KEY, gameController::moveLeft);
         keyBindings.put(MOVE_RIGHT_KEY, gameController::moveRight);
         keyBindings.put(MOVE_DOWN_KEY, gameController::moveDown);
         keyBindings.put(ROTATE_KEY, gameController::rotate);
+        keyBindings.put(HARD_DROP_KEY, gameController::hardDrop);
     }
 
     /*
@@ -10,6 +10,7 @@
  * Usage:
  *   - Run this class to start the Tetris application.
  *   - The StartMenu is displayed as the main menu interface.
+ *   - Optionally pass -Dtetris.renderFps=N (e.g. 144) to the JVM for paced active rendering.
  *
  * Dependencies:
  *   - Java Swing library for GUI components
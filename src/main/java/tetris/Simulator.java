@@ -0,0 +1,197 @@
+/*
+ * Simulator.java
+ *
+ * This is a command-line entry point that plays complete Tetris games without a window. Games
+ * run in parallel, one per worker thread at a time, and each one is played by a BeamSearch
+ * bot with its own seed, so a run with the same options always plays the same games. At the
+ * end it prints throughput (games/sec and pieces/sec) and the distribution of scores and
+ * lines per game. It is the standard workload for measuring engine speed and for collecting
+ * bulk statistics.
+ *
+ * Author: Justin Morgan
+ * Last Updated Date: 12/09/2024
+ *
+ * Usage:
+ *   - java main.java.tetris.Simulator [--games N] [--seed S] [--threads T] [--generator MODE]
+ *         [--depth D] [--beam-width K] [--budget-ms MS] [--max-pieces P] [--book FILE]
+ *   - Game i uses seed S + i, so any single game can be replayed on its own.
+ *   - A budget of 0 (the default) disables the search time limit, which keeps runs reproducible.
+ *   - With --book, bots answer positions in the opening book without searching.
+ *
+ * Dependencies:
+ *   - SelfPlay and PieceGenerator for headless games
+ *   - BeamSearch and HeuristicWeights for the bot
+ */
+
+package main.java.tetris;
+
+import main.java.tetris.ai.BeamSearch;
+import main.java.tetris.ai.HeuristicWeights;
+import main.java.tetris.ai.OpeningBook;
+import main.java.tetris.ai.SelfPlay;
+import main.java.tetris.mechanics.PieceGenerator;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class Simulator {
+
+    // Default options
+    private static final int DEFAULT_GAMES = 100;
+    private static final long DEFAULT_SEED = 1;
+    private static final int DEFAULT_DEPTH = 2;
+    private static final int DEFAULT_BEAM_WIDTH = 4;
+    private static final int DEFAULT_MAX_PIECES = 10_000;   // Stops a game that would otherwise never end
+
+    private static final int[] PERCENTILES = {10, 50, 90, 99};
+
+    private static final String USAGE = "Usage: java main.java.tetris.Simulator [--games N] [--seed S]"
+            + " [--threads T] [--generator uniform|seven_bag|history] [--depth D] [--beam-width K]"
+            + " [--budget-ms MS] [--max-pieces P] [--book FILE]";
+
+    private int games = DEFAULT_GAMES;
+    private long seed = DEFAULT_SEED;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private PieceGenerator.Mode mode = PieceGenerator.Mode.SEVEN_BAG;
+    private int depth = DEFAULT_DEPTH;
+    private int beamWidth = DEFAULT_BEAM_WIDTH;
+    private long budgetNanos = Long.MAX_VALUE;
+    private int maxPieces = DEFAULT_MAX_PIECES;
+    private OpeningBook openingBook;                        // Shared by every bot; null for none
+
+    // One bot per worker thread, so searches never share scratch boards
+    private final ThreadLocal<BeamSearch> bots = ThreadLocal.withInitial(() -> {
+        BeamSearch bot = new BeamSearch(HeuristicWeights.DEFAULT, depth, beamWidth, budgetNanos);
+        bot.setOpeningBook(openingBook);
+        return bot;
+    });
+
+    /*
+     * Runs the simulation described by the command-line options and prints a report.
+     * Exits with status 1 if the options are invalid.
+     */
+    public static void main(String[] args) {
+        Simulator simulator = new Simulator();
+        try {
+            simulator.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(1);
+        }
+        simulator.run();
+    }
+
+    // Reads the command-line options into this simulator's settings.
+    private void parse(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + option);
+            }
+            String value = args[++i];
+            try {
+                switch (option) {
+                    case "--games" -> games = Integer.parseInt(value);
+                    case "--seed" -> seed = Long.parseLong(value);
+                    case "--threads" -> threads = Integer.parseInt(value);
+                    case "--generator" -> mode = PieceGenerator.Mode.valueOf(value.toUpperCase(Locale.ROOT));
+                    case "--depth" -> depth = Integer.parseInt(value);
+                    case "--beam-width" -> beamWidth = Integer.parseInt(value);
+                    case "--budget-ms" -> {
+                        long millis = Long.parseLong(value);
+                        budgetNanos = millis == 0 ? Long.MAX_VALUE : millis * 1_000_000;
+                    }
+                    case "--max-pieces" -> maxPieces = Integer.parseInt(value);
+                    case "--book" -> {
+                        Path book = Paths.get(value);
+                        if (!Files.isRegularFile(book)) {
+                            throw new IllegalArgumentException("Opening book not found: " + value);
+                        }
+                        openingBook = OpeningBook.open(book);
+                    }
+                    default -> throw new IllegalArgumentException("Unknown option: " + option);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid value for " + option + ": " + value);
+            }
+        }
+        if (games < 1 || threads < 1 || depth < 1 || beamWidth < 1 || maxPieces < 1 || budgetNanos < 0) {
+            throw new IllegalArgumentException("Counts must be positive and the budget must not be negative");
+        }
+    }
+
+    // Plays every game on a pool of worker threads, then prints the report.
+    private void run() {
+        System.out.printf("Simulating %d games on %d threads (%s, depth %d, beam width %d)%n",
+                games, threads, mode, depth, beamWidth);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        int[] scores = new int[games];
+        int[] lines = new int[games];
+        long pieces = 0;
+        int capped = 0;
+        long start = System.nanoTime();
+        try {
+            List<Future<SelfPlay.Result>> results = new ArrayList<>(games);
+            for (int i = 0; i < games; i++) {
+                long gameSeed = seed + i;
+                results.add(pool.submit(() -> SelfPlay.play(bots.get(), mode, gameSeed, maxPieces)));
+            }
+            for (int i = 0; i < games; i++) {
+                SelfPlay.Result result = results.get(i).get();
+                scores[i] = result.getScore();
+                lines[i] = result.getLines();
+                pieces += result.getPieces();
+                if (!result.isToppedOut()) {
+                    capped++;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (ExecutionException e) {
+            e.printStackTrace();
+            return;
+        } finally {
+            pool.shutdownNow();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("Elapsed: %.2f s%n", seconds);
+        System.out.printf("Throughput: %.2f games/s, %.0f pieces/s%n", games / seconds, pieces / seconds);
+        if (capped > 0) {
+            System.out.printf("Stopped at the %d piece limit: %d games%n", maxPieces, capped);
+        }
+        printDistribution("Score", scores);
+        printDistribution("Lines per game", lines);
+    }
+
+    // Prints the mean, extremes and percentiles of one statistic.
+    private static void printDistribution(String name, int[] values) {
+        int[] sorted = values.clone();
+        Arrays.sort(sorted);
+        StringBuilder line = new StringBuilder(String.format("%s: min %d, mean %.1f",
+                name, sorted[0], Arrays.stream(sorted).average().orElse(0)));
+        for (int percentile : PERCENTILES) {
+            line.append(", p").append(percentile).append(' ').append(percentile(sorted, percentile));
+        }
+        line.append(", max ").append(sorted[sorted.length - 1]);
+        System.out.println(line);
+    }
+
+    // Returns the nearest-rank percentile of a sorted array.
+    private static int percentile(int[] sorted, int percentile) {
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+}
@@ -0,0 +1,394 @@
+/*
+ * Tuner.java
+ *
+ * This is a command-line entry point that tunes the bot's HeuristicWeights with a genetic
+ * algorithm over headless self-play. Each generation, every candidate plays the same set of
+ * seeded games, and its fitness is the average number of lines it cleared. The games of a
+ * whole generation are played at once on a work-stealing ForkJoinPool, so all cores are busy
+ * until the slowest game ends. The best candidates then breed: a child is the
+ * fitness-weighted average of two tournament winners, sometimes mutated, and it replaces one
+ * of the weakest candidates.
+ *
+ * Weights are kept at unit length, because scaling every weight by the same factor does not
+ * change which placement the bot chooses. After every generation the population is written to
+ * a checkpoint file, best first, so a long run can be stopped and resumed, and the top line
+ * can be copied into the game.
+ *
+ * Author: Justin Morgan
+ * Last Updated Date: 12/09/2024
+ *
+ * Usage:
+ *   - java main.java.tetris.Tuner [--population N] [--generations G] [--games-per-candidate K]
+ *         [--max-pieces P] [--seed S] [--threads T] [--generator MODE] [--depth D]
+ *         [--beam-width W] [--checkpoint FILE] [--resume true|false]
+ *   - With --resume true, the run continues from the population saved in the checkpoint file.
+ *
+ * Dependencies:
+ *   - SelfPlay and BeamSearch for playing games
+ *   - HeuristicWeights for the candidates being tuned
+ */
+
+package main.java.tetris;
+
+import main.java.tetris.ai.BeamSearch;
+import main.java.tetris.ai.HeuristicWeights;
+import main.java.tetris.ai.SelfPlay;
+import main.java.tetris.mechanics.PieceGenerator;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+public class Tuner {
+
+    // Checkpoint file format
+    private static final String CHECKPOINT_HEADER = "# Tetris heuristic weight tuner checkpoint";
+    private static final int CHECKPOINT_VERSION = 1;
+
+    // Genetic algorithm settings
+    private static final double OFFSPRING_FRACTION = 0.3;   // Share of the population replaced each generation
+    private static final double TOURNAMENT_FRACTION = 0.1;  // Share of the population sampled per tournament
+    private static final double MUTATION_RATE = 0.05;       // Chance that a child is mutated
+    private static final double MUTATION_STEP = 0.2;        // Largest change a mutation makes to one weight
+
+    private static final String USAGE = "Usage: java main.java.tetris.Tuner [--population N] [--generations G]"
+            + " [--games-per-candidate K] [--max-pieces P] [--seed S] [--threads T]"
+            + " [--generator uniform|seven_bag|history] [--depth D] [--beam-width W]"
+            + " [--checkpoint FILE] [--resume true|false]";
+
+    private int populationSize = 32;
+    private int generations = 20;
+    private int gamesPerCandidate = 8;
+    private int maxPieces = 500;
+    private long seed = 1;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private PieceGenerator.Mode mode = PieceGenerator.Mode.SEVEN_BAG;
+    private int depth = 1;
+    private int beamWidth = 1;
+    private Path checkpoint = Paths.get("tuner-checkpoint.txt");
+    private boolean resume;
+
+    private HeuristicWeights[] population;
+    private double[] fitness;
+    private int firstGeneration;
+
+    /*
+     * Runs the tuner described by the command-line options.
+     * Exits with status 1 if the options are invalid or the checkpoint cannot be resumed.
+     */
+    public static void main(String[] args) {
+        Tuner tuner = new Tuner();
+        try {
+            tuner.parse(args);
+            tuner.initPopulation();
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(1);
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+        tuner.run();
+    }
+
+    // Reads the command-line options into this tuner's settings.
+    private void parse(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + option);
+            }
+            String value = args[++i];
+            try {
+                switch (option) {
+                    case "--population" -> populationSize = Integer.parseInt(value);
+                    case "--generations" -> generations = Integer.parseInt(value);
+                    case "--games-per-candidate" -> gamesPerCandidate = Integer.parseInt(value);
+                    case "--max-pieces" -> maxPieces = Integer.parseInt(value);
+                    case "--seed" -> seed = Long.parseLong(value);
+                    case "--threads" -> threads = Integer.parseInt(value);
+                    case "--generator" -> mode = PieceGenerator.Mode.valueOf(value.toUpperCase(Locale.ROOT));
+                    case "--depth" -> depth = Integer.parseInt(value);
+                    case "--beam-width" -> beamWidth = Integer.parseInt(value);
+                    case "--checkpoint" -> checkpoint = Paths.get(value);
+                    case "--resume" -> resume = Boolean.parseBoolean(value);
+                    default -> throw new IllegalArgumentException("Unknown option: " + option);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid value for " + option + ": " + value);
+            }
+        }
+        if (populationSize < 2 || generations < 1 || gamesPerCandidate < 1 || maxPieces < 1
+                || threads < 1 || depth < 1 || beamWidth < 1) {
+            throw new IllegalArgumentException("Population must be at least 2 and all counts must be positive");
+        }
+    }
+
+    /*
+     * Creates the starting population: the checkpointed one when resuming, otherwise the
+     * default weights plus random unit-length candidates.
+     */
+    private void initPopulation() throws IOException {
+        if (resume && Files.exists(checkpoint)) {
+            readCheckpoint();
+            System.out.printf("Resumed %d candidates from %s at generation %d%n",
+                    population.length, checkpoint, firstGeneration);
+            return;
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        population = new HeuristicWeights[populationSize];
+        population[0] = normalize(HeuristicWeights.DEFAULT.toArray());
+        for (int i = 1; i < populationSize; i++) {
+            double[] weights = new double[HeuristicWeights.FEATURE_NAMES.length];
+            for (int f = 0; f < weights.length; f++) {
+                weights[f] = random.nextDouble(-1, 1);
+            }
+            population[i] = normalize(weights);
+        }
+        fitness = new double[populationSize];
+        firstGeneration = 0;
+    }
+
+    // Evolves the population for the configured number of generations.
+    private void run() {
+        System.out.printf("Tuning %d candidates x %d games on %d threads (%s, depth %d, beam width %d)%n",
+                population.length, gamesPerCandidate, threads, mode, depth, beamWidth);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            for (int generation = firstGeneration; generation < firstGeneration + generations; generation++) {
+                long start = System.nanoTime();
+                evaluate(pool, generation);
+                sortByFitness();
+                double seconds = (System.nanoTime() - start) / 1e9;
+                System.out.printf("Generation %d: best %.1f lines/game, mean %.1f, %.1f s, best %s%n",
+                        generation, fitness[0], Arrays.stream(fitness).average().orElse(0), seconds, population[0]);
+                try {
+                    writeCheckpoint(generation);
+                } catch (IOException e) {
+                    // A failed checkpoint should not throw away the generations still to come
+                    e.printStackTrace();
+                }
+                breed(new SplittableRandom(seed ^ (generation + 1) * 0x9E3779B97F4A7C15L));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /*
+     * Plays every candidate's games for one generation in parallel and stores each candidate's
+     * average lines cleared. All candidates play the same seeds, so they are compared fairly.
+     */
+    private void evaluate(ForkJoinPool pool, int generation) {
+        int[] lines = new int[population.length * gamesPerCandidate];
+        long generationSeed = seed * 1_000_003L + (long) generation * gamesPerCandidate;
+        pool.invoke(new GameTask(lines, generationSeed, 0, lines.length));
+        for (int i = 0; i < population.length; i++) {
+            long total = 0;
+            for (int g = 0; g < gamesPerCandidate; g++) {
+                total += lines[i * gamesPerCandidate + g];
+            }
+            fitness[i] = (double) total / gamesPerCandidate;
+        }
+    }
+
+    // Orders the population from best to worst fitness.
+    private void sortByFitness() {
+        Integer[] order = new Integer[population.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingDouble((Integer i) -> -fitness[i]));
+        HeuristicWeights[] sortedPopulation = new HeuristicWeights[population.length];
+        double[] sortedFitness = new double[fitness.length];
+        for (int i = 0; i < order.length; i++) {
+            sortedPopulation[i] = population[order[i]];
+            sortedFitness[i] = fitness[order[i]];
+        }
+        population = sortedPopulation;
+        fitness = sortedFitness;
+    }
+
+    // Replaces the weakest candidates (at the end of the sorted population) with new children.
+    private void breed(SplittableRandom random) {
+        int offspring = Math.max(1, (int) (population.length * OFFSPRING_FRACTION));
+        int tournamentSize = Math.max(2, (int) (population.length * TOURNAMENT_FRACTION));
+        HeuristicWeights[] children = new HeuristicWeights[offspring];
+        for (int c = 0; c < offspring; c++) {
+            // The population is sorted, so the lowest sampled indices are the tournament winners
+            int first = Integer.MAX_VALUE;
+            int second = Integer.MAX_VALUE;
+            for (int t = 0; t < tournamentSize; t++) {
+                int pick = random.nextInt(population.length);
+                if (pick < first) {
+                    second = first;
+                    first = pick;
+                } else if (pick < second && pick != first) {
+                    second = pick;
+                }
+            }
+            if (second == Integer.MAX_VALUE) {
+                second = first == 0 ? 1 : 0;
+            }
+            children[c] = crossover(first, second, random);
+        }
+        for (int c = 0; c < offspring; c++) {
+            population[population.length - 1 - c] = children[c];
+        }
+    }
+
+    // Blends two parents in proportion to their fitness and occasionally mutates the result.
+    private HeuristicWeights crossover(int first, int second, SplittableRandom random) {
+        double[] a = population[first].toArray();
+        double[] b = population[second].toArray();
+        double share = fitness[first] + fitness[second] > 0
+                ? fitness[first] / (fitness[first] + fitness[second])
+                : 0.5;
+        double[] child = new double[a.length];
+        for (int f = 0; f < child.length; f++) {
+            child[f] = share * a[f] + (1 - share) * b[f];
+        }
+        if (random.nextDouble() < MUTATION_RATE) {
+            child[random.nextInt(child.length)] += random.nextDouble(-MUTATION_STEP, MUTATION_STEP);
+        }
+        return normalize(child);
+    }
+
+    // Scales weights to unit length; the bot's choices do not depend on their overall scale.
+    private static HeuristicWeights normalize(double[] weights) {
+        double length = 0;
+        for (double weight : weights) {
+            length += weight * weight;
+        }
+        length = Math.sqrt(length);
+        if (length == 0) {
+            return new HeuristicWeights(weights);
+        }
+        double[] scaled = new double[weights.length];
+        for (int f = 0; f < weights.length; f++) {
+            scaled[f] = weights[f] / length;
+        }
+        return new HeuristicWeights(scaled);
+    }
+
+    /*
+     * Writes the sorted population to the checkpoint file. The file is written next to the
+     * old one and then moved over it, so an interrupted write never leaves a broken checkpoint.
+     */
+    private void writeCheckpoint(int generation) throws IOException {
+        Path absolute = checkpoint.toAbsolutePath();
+        Path temp = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            writer.write(CHECKPOINT_HEADER);
+            writer.newLine();
+            writer.write("version " + CHECKPOINT_VERSION);
+            writer.newLine();
+            writer.write("generation " + generation);
+            writer.newLine();
+            writer.write("# fitness " + String.join(" ", HeuristicWeights.FEATURE_NAMES));
+            writer.newLine();
+            for (int i = 0; i < population.length; i++) {
+                StringBuilder line = new StringBuilder("candidate ").append(fitness[i]);
+                for (double weight : population[i].toArray()) {
+                    line.append(' ').append(weight);
+                }
+                writer.write(line.toString());
+                writer.newLine();
+            }
+        }
+        Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Loads the population saved by writeCheckpoint and continues after its generation.
+    private void readCheckpoint() throws IOException {
+        List<HeuristicWeights> loaded = new ArrayList<>();
+        List<Double> loadedFitness = new ArrayList<>();
+        int version = -1;
+        int generation = -1;
+        try (BufferedReader reader = Files.newBufferedReader(checkpoint, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.trim().split("\\s+");
+                if (line.isBlank() || parts[0].startsWith("#")) {
+                    continue;
+                }
+                try {
+                    switch (parts[0]) {
+                        case "version" -> version = Integer.parseInt(parts[1]);
+                        case "generation" -> generation = Integer.parseInt(parts[1]);
+                        case "candidate" -> {
+                            double[] weights = new double[parts.length - 2];
+                            for (int f = 0; f < weights.length; f++) {
+                                weights[f] = Double.parseDouble(parts[f + 2]);
+                            }
+                            loadedFitness.add(Double.parseDouble(parts[1]));
+                            loaded.add(new HeuristicWeights(weights));
+                        }
+                        default -> throw new IllegalArgumentException("Unexpected checkpoint line: " + line);
+                    }
+                } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                    throw new IllegalArgumentException("Malformed checkpoint line: " + line);
+                }
+            }
+        }
+        if (version != CHECKPOINT_VERSION) {
+            throw new IllegalArgumentException("Unsupported checkpoint version " + version + " in " + checkpoint);
+        }
+        if (generation < 0 || loaded.size() < 2) {
+            throw new IllegalArgumentException("Checkpoint " + checkpoint + " has no generation or fewer than 2 candidates");
+        }
+        population = loaded.toArray(new HeuristicWeights[0]);
+        fitness = new double[population.length];
+        for (int i = 0; i < fitness.length; i++) {
+            fitness[i] = loadedFitness.get(i);
+        }
+        // The checkpoint was written before breeding, so breed once to pick up where the run stopped
+        breed(new SplittableRandom(seed ^ (generation + 1) * 0x9E3779B97F4A7C15L));
+        firstGeneration = generation + 1;
+    }
+
+    // Plays a range of (candidate, game) pairs, splitting until each task plays one game.
+    private final class GameTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] lines;
+        private final long generationSeed;
+        private final int from;
+        private final int to;
+
+        GameTask(int[] lines, long generationSeed, int from, int to) {
+            this.lines = lines;
+            this.generationSeed = generationSeed;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                int candidate = from / gamesPerCandidate;
+                int game = from % gamesPerCandidate;
+                BeamSearch bot = new BeamSearch(population[candidate], depth, beamWidth, Long.MAX_VALUE);
+                lines[from] = SelfPlay.play(bot, mode, generationSeed + game, maxPieces).getLines();
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new GameTask(lines, generationSeed, from, middle),
+                    new GameTask(lines, generationSeed, middle, to));
+        }
+    }
+}
@@ -0,0 +1,325 @@
+/*
+ * BeamSearch.java
+ *
+ * This class chooses a placement by looking several pieces ahead through the preview queue.
+ * Each ply expands every board kept in the beam with every placement of the next piece, rates
+ * the results with HeuristicWeights, and keeps only the best beamWidth distinct boards for the
+ * following ply. The move returned is the first placement on the path to the best board of the
+ * deepest ply that was completed.
+ *
+ * Every search has a time budget so it can run inside a real-time tick. The first ply always
+ * completes so that there is a move to return. A deeper ply that runs past the deadline is
+ * thrown away, and the answer comes from the last complete ply. The search keeps running
+ * totals of nodes expanded and depth reached, so beam width can be tuned against latency.
+ *
+ * If an OpeningBook is attached, positions it covers are answered from the book without searching.
+ *
+ * Beam boards are kept in two reusable pools that swap each ply, so a search copies boards
+ * into existing storage instead of allocating a board per node. The placements from each beam
+ * board are scored in parallel by a PlacementEvaluator.
+ *
+ * Author: Justin Morgan
+ * Last Updated Date: 12/09/2024
+ *
+ * Usage:
+ *   - Instantiate one BeamSearch per thread with weights, depth, beam width and time budget.
+ *   - Call search(engine) on the engine's thread, or search(board, pieces) with an explicit queue.
+ *   - Read getNodesPerSecond() and getAverageDepth() to tune the configuration.
+ *   - Optionally call setOpeningBook(book) to answer early-game positions with a lookup.
+ *
+ * Dependencies:
+ *   - MoveGenerator for the placements of each piece
+ *   - HeuristicWeights for rating boards
+ *   - PlacementEvaluator for scoring placements across the fork-join pool
+ *   - GameEngine for the current piece and preview queue
+ *   - OpeningBook for precomputed early-game placements
+ */
+
+package main.java.tetris.ai;
+
+import main.java.tetris.mechanics.GameEngine;
+import main.java.tetris.model.GameBoard;
+import main.java.tetris.model.PieceType;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class BeamSearch {
+
+    public static final int DEFAULT_DEPTH = 3;                      // Current piece plus two previews
+    public static final int DEFAULT_BEAM_WIDTH = 16;                // Boards kept per ply
+    public static final long DEFAULT_TIME_BUDGET_NANOS = 8_000_000; // About half a 60 Hz frame
+
+    private final HeuristicWeights weights;
+    private final PlacementEvaluator evaluator;
+    private final int depth;
+    private final int beamWidth;
+    private final long timeBudgetNanos;
+    private final MoveGenerator generator = new MoveGenerator();
+
+    // Reusable beam storage; nodes are swapped with nextNodes after each ply
+    private GameBoard[] boards = new GameBoard[0];
+    private GameBoard[] nextBoards = new GameBoard[0];
+    private Node[] nodes;
+    private Node[] nextNodes;
+    private GameBoard scratch;
+    private OpeningBook openingBook;                // Consulted before searching, if set
+
+    // Running statistics over every search made by this instance
+    private long totalNodes;
+    private long totalNanos;
+    private long totalDepth;
+    private long searches;
+    private long bookHits;
+
+    public BeamSearch(HeuristicWeights weights) {
+        this(weights, DEFAULT_DEPTH, DEFAULT_BEAM_WIDTH, DEFAULT_TIME_BUDGET_NANOS);
+    }
+
+    public BeamSearch(HeuristicWeights weights, int depth, int beamWidth, long timeBudgetNanos) {
+        if (depth < 1 || beamWidth < 1 || timeBudgetNanos <= 0) {
+            throw new IllegalArgumentException("Depth, beam width and time budget must be positive");
+        }
+        this.weights = weights;
+        this.evaluator = new PlacementEvaluator(weights);
+        this.depth = depth;
+        this.beamWidth = beamWidth;
+        this.timeBudgetNanos = timeBudgetNanos;
+        this.nodes = new Node[beamWidth];
+        this.nextNodes = new Node[beamWidth];
+    }
+
+    /*
+     * Searches from the engine's board using its current piece and as many preview pieces as the
+     * configured depth allows. Must be called on the thread that owns the engine. Returns null if
+     * the game is over or the current piece cannot be placed.
+     */
+    public Result search(GameEngine engine) {
+        if (engine.isGameOver() || engine.getCurrentPiece() == null) {
+            return null;
+        }
+        // The whole queue is passed on, since an opening book may key on more pieces than the search uses
+        PieceType[] pieces = new PieceType[engine.getPreviewSize() + 1];
+        pieces[0] = engine.getCurrentPiece().getType();
+        for (int i = 1; i < pieces.length; i++) {
+            pieces[i] = engine.getPreviewType(i - 1);
+        }
+        return search(engine.getGameBoard(), pieces);
+    }
+
+    /*
+     * Searches from the given board, placing pieces[0] first and then each following piece in
+     * turn, up to the configured depth. Returns null if the first piece cannot be placed.
+     */
+    public Result search(GameBoard board, PieceType[] pieces) {
+        long start = System.nanoTime();
+        long deadline = start + timeBudgetNanos;
+        int plies = Math.min(depth, pieces.length);
+        ensureCapacity(board);
+
+        if (openingBook != null && pieces.length > 0) {
+            Placement booked = openingBook.lookup(board, pieces, generator);
+            if (booked != null) {
+                bookHits++;
+                scratch.copyFrom(board);
+                int lines = booked.applyTo(scratch);
+                return new Result(booked, weights.score(scratch, lines), 0, 0);
+            }
+        }
+
+        long expanded = 0;
+        int size = 1;
+        boards[0].copyFrom(board);
+        nodes[0] = new Node(null, 0, 0);
+        int reached = 0;
+
+        for (int ply = 0; ply < plies; ply++) {
+            List<Candidate> candidates = new ArrayList<>();
+            boolean expired = false;
+            for (int i = 0; i < size; i++) {
+                if (ply > 0 && System.nanoTime() - deadline >= 0) {
+                    expired = true;
+                    break;
+                }
+                expanded += expand(i, pieces[ply], candidates);
+            }
+            if (expired || candidates.isEmpty()) {
+                break;
+            }
+            size = selectBeam(candidates);
+            reached = ply + 1;
+        }
+
+        searches++;
+        totalNodes += expanded;
+        totalDepth += reached;
+        totalNanos += System.nanoTime() - start;
+        if (reached == 0) {
+            return null;
+        }
+        Node best = nodes[0];
+        return new Result(best.root, best.score, reached, expanded);
+    }
+
+    // Retrieves the weights used to rate boards.
+    public HeuristicWeights getWeights() {
+        return weights;
+    }
+
+    // Attaches a book of precomputed placements to consult before searching, or null for none.
+    public void setOpeningBook(OpeningBook openingBook) {
+        this.openingBook = openingBook;
+    }
+
+    // Retrieves the number of moves answered from the opening book instead of a search.
+    public long getBookHits() {
+        return bookHits;
+    }
+
+    // Retrieves the average number of nodes expanded per second over all searches.
+    public double getNodesPerSecond() {
+        return totalNanos == 0 ? 0 : totalNodes * 1_000_000_000.0 / totalNanos;
+    }
+
+    // Retrieves the average number of plies completed per search.
+    public double getAverageDepth() {
+        return searches == 0 ? 0 : (double) totalDepth / searches;
+    }
+
+    // Retrieves the number of searches run so far.
+    public long getSearchCount() {
+        return searches;
+    }
+
+    // Clears the running statistics.
+    public void resetStatistics() {
+        totalNodes = 0;
+        totalNanos = 0;
+        totalDepth = 0;
+        searches = 0;
+        bookHits = 0;
+    }
+
+    // Scores every placement of a piece on one beam board and adds them as candidates.
+    private int expand(int index, PieceType type, List<Candidate> candidates) {
+        GameBoard parent = boards[index];
+        Node node = nodes[index];
+        List<Placement> placements = generator.generate(parent, type);
+        for (PlacementEvaluator.Evaluation scored : evaluator.scoreAll(parent, placements, node.lines)) {
+            candidates.add(new Candidate(index, scored.getPlacement(), scored.getLines(),
+                    scored.getScore(), scored.getHash()));
+        }
+        return placements.size();
+    }
+
+    /*
+     * Keeps the best distinct boards among the candidates as the next beam and returns how many
+     * were kept. Placements that lead to the same board are merged, keeping the best-scored one.
+     */
+    private int selectBeam(List<Candidate> candidates) {
+        candidates.sort((a, b) -> Double.compare(b.score, a.score));
+        Set<Long> seen = new HashSet<>();
+        int size = 0;
+        for (int i = 0; i < candidates.size() && size < beamWidth; i++) {
+            Candidate candidate = candidates.get(i);
+            if (!seen.add(candidate.hash)) {
+                continue;
+            }
+            Node parent = nodes[candidate.parent];
+            nextBoards[size].copyFrom(boards[candidate.parent]);
+            candidate.placement.applyTo(nextBoards[size]);
+            nextNodes[size] = new Node(parent.root == null ? candidate.placement : parent.root,
+                    candidate.lines, candidate.score);
+            size++;
+        }
+
+        GameBoard[] swapBoards = boards;
+        boards = nextBoards;
+        nextBoards = swapBoards;
+        Node[] swapNodes = nodes;
+        nodes = nextNodes;
+        nextNodes = swapNodes;
+        return size;
+    }
+
+    // Allocates the beam boards on first use, or again when the board size changes.
+    private void ensureCapacity(GameBoard board) {
+        if (scratch != null && scratch.getWidth() == board.getWidth() && scratch.getHeight() == board.getHeight()) {
+            return;
+        }
+        boards = new GameBoard[beamWidth];
+        nextBoards = new GameBoard[beamWidth];
+        for (int i = 0; i < beamWidth; i++) {
+            boards[i] = new GameBoard(board.getWidth(), board.getHeight());
+            nextBoards[i] = new GameBoard(board.getWidth(), board.getHeight());
+        }
+        scratch = new GameBoard(board.getWidth(), board.getHeight());
+    }
+
+    // The outcome of one search.
+    public static final class Result {
+        private final Placement placement;
+        private final double score;
+        private final int depth;
+        private final long nodes;
+
+        Result(Placement placement, double score, int depth, long nodes) {
+            this.placement = placement;
+            this.score = score;
+            this.depth = depth;
+            this.nodes = nodes;
+        }
+
+        // Retrieves the placement to play for the current piece.
+        public Placement getPlacement() {
+            return placement;
+        }
+
+        // Retrieves the score of the best board found.
+        public double getScore() {
+            return score;
+        }
+
+        // Retrieves the number of plies completed before the search stopped (0 for a book move).
+        public int getDepth() {
+            return depth;
+        }
+
+        // Retrieves the number of nodes expanded by the search.
+        public long getNodes() {
+            return nodes;
+        }
+    }
+
+    // A board kept in the beam: the first move that led to it, lines cleared on the way, and its score.
+    private static final class Node {
+        final Placement root;
+        final int lines;
+        final double score;
+
+        Node(Placement root, int lines, double score) {
+            this.root = root;
+            this.lines = lines;
+            this.score = score;
+        }
+    }
+
+    // A scored child of a beam board, not yet materialized.
+    private static final class Candidate {
+        final int parent;
+        final Placement placement;
+        final int lines;
+        final double score;
+        final long hash;
+
+        Candidate(int parent, Placement placement, int lines, double score, long hash) {
+            this.parent = parent;
+            this.placement = placement;
+            this.lines = lines;
+            this.score = score;
+            this.hash = hash;
+        }
+    }
+}
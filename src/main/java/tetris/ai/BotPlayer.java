@@ -0,0 +1,238 @@
+/*
+ * BotPlayer.java
+ *
+ * This class plays a game in place of a human. It runs on its own virtual thread and reads
+ * only the snapshots that the game loop publishes. It sends moves the same way the keyboard
+ * does, through GameLoop.submit, so it never touches the engine, never blocks the Event
+ * Dispatch Thread, and cannot delay the gravity of either game in Multiplayer.
+ *
+ * When a new piece appears, the bot runs a beam search on a private copy of the board to pick
+ * a target placement. Then, at the configured number of actions per second, it finds the
+ * shortest route from the piece's current position to that target and submits the first
+ * input of the route. Routing again before every action keeps the bot correct while gravity
+ * moves the piece. Routes shift and rotate before they fall, so as soon as no lateral move or
+ * rotation remains, the bot hard drops. If gravity has carried the
+ * piece past its target, the bot falls back to the best placement still reachable.
+ *
+ * Author: Justin Morgan
+ * Last Updated Date: 12/09/2024
+ *
+ * Usage:
+ *   - Instantiate BotPlayer with a GameLoop, a BeamSearch and an actions-per-second rate.
+ *   - Call start() to begin playing; the bot stops by itself once the loop is shut down.
+ *
+ * Dependencies:
+ *   - GameLoop and GameSnapshot for reading the game and submitting inputs
+ *   - BeamSearch for choosing placements
+ *   - MoveGenerator for routing the active piece to its target
+ */
+
+package main.java.tetris.ai;
+
+import main.java.tetris.mechanics.GameInput;
+import main.java.tetris.mechanics.GameLoop;
+import main.java.tetris.mechanics.GameSnapshot;
+import main.java.tetris.model.GameBoard;
+import main.java.tetris.model.Piece;
+import main.java.tetris.model.PieceType;
+
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+public class BotPlayer {
+
+    public static final double DEFAULT_ACTIONS_PER_SECOND = 10;
+
+    // How long to wait for an input to show up in a snapshot before deciding again
+    private static final long INPUT_SETTLE_NANOS = 2 * GameLoop.TICK_NANOS;
+
+    private final GameLoop gameLoop;
+    private final BeamSearch search;
+    private final long actionIntervalNanos;
+    private final MoveGenerator generator = new MoveGenerator();
+    private volatile Thread thread;         // Null until start() is called
+
+    // Bot thread state
+    private GameBoard board;                // Private copy of the locked cells
+    private GameBoard scratch;              // Board used to rate fallback placements
+    private GameSnapshot boardSource;       // Snapshot the board copy was taken from
+    private Placement target;               // Where the current piece should lock
+    private int targetPiece = -1;           // piecesPlaced value the target was chosen for
+    private GameSnapshot lastActed;         // Snapshot the last input was based on
+    private long lastActionNanos;
+
+    private volatile boolean running;
+
+    public BotPlayer(GameLoop gameLoop, BeamSearch search, double actionsPerSecond) {
+        if (!(actionsPerSecond > 0)) {
+            throw new IllegalArgumentException("Actions per second must be positive: " + actionsPerSecond);
+        }
+        this.gameLoop = gameLoop;
+        this.search = search;
+        this.actionIntervalNanos = (long) (1_000_000_000L / actionsPerSecond);
+    }
+
+    // Starts playing. Does nothing if the bot was already started.
+    public synchronized void start() {
+        if (thread == null) {
+            running = true;
+            thread = Thread.ofVirtual().name("tetris-bot").start(this::run);
+        }
+    }
+
+    // Stops playing; the bot thread exits after its current action.
+    public void stop() {
+        running = false;
+        Thread current = thread;
+        if (current != null) {
+            LockSupport.unpark(current);
+        }
+    }
+
+    // Returns true while the bot thread is playing.
+    public boolean isRunning() {
+        Thread current = thread;
+        return running && current != null && current.isAlive();
+    }
+
+    // Retrieves the search used to choose placements, for reading its statistics.
+    public BeamSearch getSearch() {
+        return search;
+    }
+
+    // Paces actions at the configured rate until stopped or the loop is shut down.
+    private void run() {
+        long nextAction = System.nanoTime();
+        while (running && !gameLoop.isShutdown()) {
+            long wait = nextAction - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(this, wait);
+                continue;
+            }
+            nextAction += actionIntervalNanos;
+            if (System.nanoTime() - nextAction > actionIntervalNanos) {
+                nextAction = System.nanoTime(); // Fell behind (e.g. a long search); do not burst
+            }
+            try {
+                act();
+            } catch (RuntimeException e) {
+                // Keep playing; the next snapshot will be planned from scratch
+                target = null;
+                e.printStackTrace();
+            }
+        }
+        running = false;
+    }
+
+    // Decides and submits at most one input based on the latest snapshot.
+    private void act() {
+        GameSnapshot snapshot = gameLoop.getSnapshot();
+        if (snapshot.isGameOver() || snapshot.getPieceType() == null) {
+            target = null;
+            return;
+        }
+        // Give the previous input time to be applied before deciding from the same state again
+        if (snapshot == lastActed && System.nanoTime() - lastActionNanos < INPUT_SETTLE_NANOS) {
+            return;
+        }
+        syncBoard(snapshot);
+
+        if (target == null || targetPiece != snapshot.getPiecesPlaced()) {
+            target = plan(snapshot);
+            targetPiece = snapshot.getPiecesPlaced();
+        }
+
+        Piece current = new Piece(snapshot.getPieceType(), snapshot.getOrientation().getRotation(),
+                snapshot.getPieceX(), snapshot.getPieceY());
+        List<Placement> reachable = generator.generate(board, current);
+        Placement route = findRoute(reachable, target);
+        if (route == null && !reachable.isEmpty()) {
+            // Gravity carried the piece past the target; settle for the best spot still reachable
+            target = bestOf(reachable);
+            route = findRoute(reachable, target);
+        }
+
+        gameLoop.submit(route == null ? GameInput.HARD_DROP : firstInput(route));
+        lastActed = snapshot;
+        lastActionNanos = System.nanoTime();
+    }
+
+    // Chooses a target placement for the active piece with the beam search.
+    private Placement plan(GameSnapshot snapshot) {
+        PieceType[] pieces = new PieceType[snapshot.getPreviewSize() + 1];
+        pieces[0] = snapshot.getPieceType();
+        for (int i = 1; i < pieces.length; i++) {
+            pieces[i] = snapshot.getPreviewType(i - 1);
+        }
+        BeamSearch.Result result = search.search(board, pieces);
+        return result == null ? null : result.getPlacement();
+    }
+
+    // Returns the reachable placement that locks in the same cells as the target, or null.
+    private static Placement findRoute(List<Placement> reachable, Placement target) {
+        if (target == null) {
+            return null;
+        }
+        int canonical = target.getOrientation().getCanonicalRotation();
+        for (Placement placement : reachable) {
+            if (placement.getX() == target.getX() && placement.getY() == target.getY()
+                    && placement.getOrientation().getCanonicalRotation() == canonical) {
+                return placement;
+            }
+        }
+        return null;
+    }
+
+    // Rates each reachable placement by itself and returns the best one.
+    private Placement bestOf(List<Placement> reachable) {
+        Placement best = null;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        for (Placement placement : reachable) {
+            scratch.copyFrom(board);
+            int lines = placement.applyTo(scratch);
+            double score = search.getWeights().score(scratch, lines);
+            if (best == null || score > bestScore) {
+                best = placement;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    /*
+     * Returns the next input of a route, or a hard drop once no lateral move or rotation remains.
+     * A tuck or spin under an overhang needs DOWN inputs before its last shift, so those are kept.
+     */
+    private static GameInput firstInput(Placement route) {
+        for (int i = 0; i < route.getPathLength(); i++) {
+            if (route.getInput(i) != GameInput.DOWN) {
+                return route.getInput(0);
+            }
+        }
+        return GameInput.HARD_DROP;
+    }
+
+    // Copies the snapshot's locked cells into the bot's board when they have changed.
+    private void syncBoard(GameSnapshot snapshot) {
+        int width = snapshot.getBoardWidth();
+        int height = snapshot.getBoardHeight();
+        if (board == null || board.getWidth() != width || board.getHeight() != height) {
+            board = new GameBoard(width, height);
+            scratch = new GameBoard(width, height);
+            boardSource = null;
+        }
+        if (snapshot.sameBoardAs(boardSource)) {
+            return;
+        }
+        board.clearBoard();
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int cell = snapshot.getCell(x, y);
+                if (cell != 0) {
+                    board.setCell(x, y, cell);
+                }
+            }
+        }
+        boardSource = snapshot;
+    }
+}
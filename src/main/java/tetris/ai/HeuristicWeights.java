@@ -0,0 +1,93 @@
+/*
+ * HeuristicWeights.java
+ *
+ * This class holds the weights of the bot's board evaluation: a linear combination of
+ * aggregate column height, holes, bumpiness (height differences between neighbouring columns)
+ * and lines cleared. The features come straight from GameBoard's incrementally maintained
+ * stack profile, so scoring a board only walks its column heights once.
+ *
+ * Author: Justin Morgan
+ * Last Updated Date: 12/09/2024
+ *
+ * Usage:
+ *   - Use HeuristicWeights.DEFAULT, or pass four weights in FEATURE_NAMES order.
+ *   - Call score(board, linesCleared) to rate a board after a placement; higher is better.
+ *
+ * Dependencies:
+ *   - GameBoard for column heights and hole counts
+ */
+
+package main.java.tetris.ai;
+
+import main.java.tetris.model.GameBoard;
+
+import java.util.Arrays;
+
+public final class HeuristicWeights {
+
+    // Feature order used by the constructor, get() and the tuner's checkpoints
+    public static final String[] FEATURE_NAMES = {"aggregateHeight", "holes", "bumpiness", "linesCleared"};
+    public static final int AGGREGATE_HEIGHT = 0;
+    public static final int HOLES = 1;
+    public static final int BUMPINESS = 2;
+    public static final int LINES_CLEARED = 3;
+
+    // Well-known hand-tuned starting point for these four features
+    public static final HeuristicWeights DEFAULT = new HeuristicWeights(-0.510066, -0.35663, -0.184483, 0.760666);
+
+    private final double[] weights;
+
+    public HeuristicWeights(double... weights) {
+        if (weights.length != FEATURE_NAMES.length) {
+            throw new IllegalArgumentException("Expected " + FEATURE_NAMES.length + " weights, got " + weights.length);
+        }
+        this.weights = weights.clone();
+    }
+
+    // Rates a board after a placement cleared the given number of lines. Higher is better.
+    public double score(GameBoard board, int linesCleared) {
+        int width = board.getWidth();
+        int aggregateHeight = 0;
+        int bumpiness = 0;
+        int previous = board.getColumnHeight(0);
+        for (int x = 0; x < width; x++) {
+            int columnHeight = board.getColumnHeight(x);
+            aggregateHeight += columnHeight;
+            bumpiness += Math.abs(columnHeight - previous);
+            previous = columnHeight;
+        }
+        return weights[AGGREGATE_HEIGHT] * aggregateHeight
+                + weights[HOLES] * board.getHoleCount()
+                + weights[BUMPINESS] * bumpiness
+                + weights[LINES_CLEARED] * linesCleared;
+    }
+
+    // Retrieves one weight by feature index.
+    public double get(int feature) {
+        return weights[feature];
+    }
+
+    // Retrieves a copy of all weights in FEATURE_NAMES order.
+    public double[] toArray() {
+        return weights.clone();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder("{");
+        for (int i = 0; i < weights.length; i++) {
+            text.append(i == 0 ? "" : ", ").append(FEATURE_NAMES[i]).append('=').append(weights[i]);
+        }
+        return text.append('}').toString();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof HeuristicWeights && Arrays.equals(weights, ((HeuristicWeights) other).weights);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(weights);
+    }
+}
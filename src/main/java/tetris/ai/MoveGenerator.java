@@ -0,0 +1,152 @@
+/*
+ * MoveGenerator.java
+ *
+ * This class lists every distinct final resting placement a piece can reach from its spawn
+ * position using the game's own LEFT, RIGHT, ROTATE and DOWN inputs, including tucks and spins
+ * under overhangs that a straight drop cannot reach. It runs a breadth-first search over
+ * (x, y, rotation) states, so the path recorded for each placement is the shortest one.
+ * Among equally short paths, the one that shifts and rotates before falling is kept, so a route
+ * ends in a run of DOWN inputs that a player can replace with a hard drop.
+ * Rotations that cover the same cells are merged, so each resting position appears once.
+ *
+ * The search reuses its visited bitsets, queue and parent arrays between calls, so one
+ * generator per thread can enumerate placements without allocating per state.
+ *
+ * Author: Justin Morgan
+ * Last Updated Date: 12/09/2024
+ *
+ * Usage:
+ *   - Instantiate one MoveGenerator per thread.
+ *   - Call generate(board, type) to list the placements of a newly spawned piece.
+ *
+ * Dependencies:
+ *   - Movement for collision checks
+ *   - PieceOrientation for rotations and duplicate detection
+ */
+
+package main.java.tetris.ai;
+
+import main.java.tetris.mechanics.GameInput;
+import main.java.tetris.mechanics.Movement;
+import main.java.tetris.model.GameBoard;
+import main.java.tetris.model.Piece;
+import main.java.tetris.model.PieceOrientation;
+import main.java.tetris.model.PieceType;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import static main.java.tetris.model.ModelConstants.*;
+
+public class MoveGenerator {
+
+    // Inputs explored from each state, in the order ties between equal-length paths are broken.
+    // DOWN comes last so lateral moves and rotations are taken as early as possible.
+    private static final GameInput[] MOVES = {GameInput.LEFT, GameInput.RIGHT, GameInput.ROTATE, GameInput.DOWN};
+
+    private final BitSet visited = new BitSet();
+    private final BitSet placed = new BitSet();
+    private int[] queue = new int[0];
+    private int[] parent = new int[0];
+    private byte[] parentMove = new byte[0];
+
+    // Lists every distinct resting placement of a piece spawned at the standard position.
+    public List<Placement> generate(GameBoard board, PieceType type) {
+        return generate(board, new Piece(type, board.getWidth()));
+    }
+
+    /*
+     * Lists every distinct resting placement reachable from the given piece's current position
+     * and rotation. Returns an empty list if the piece does not fit where it is.
+     */
+    public List<Placement> generate(GameBoard board, Piece start) {
+        int width = board.getWidth();
+        int height = board.getHeight();
+        int stateCount = ROTATION_COUNT * height * width;
+        ensureCapacity(stateCount);
+        visited.clear();
+        placed.clear();
+
+        List<Placement> placements = new ArrayList<>();
+        Movement movement = new Movement(board);
+        PieceType type = start.getType();
+        if (!movement.canPlace(start.getOrientation(), start.getX(), start.getY())) {
+            return placements;
+        }
+
+        int head = 0;
+        int tail = 0;
+        int origin = encode(start.getRotation(), start.getX(), start.getY(), width, height);
+        visited.set(origin);
+        parent[origin] = -1;
+        queue[tail++] = origin;
+
+        while (head < tail) {
+            int state = queue[head++];
+            int x = state % width;
+            int y = (state / width) % height;
+            int rotation = state / (width * height);
+            PieceOrientation orientation = PieceOrientation.get(type, rotation);
+
+            // A state that cannot move down is a place the piece can lock
+            if (!movement.canPlace(orientation, x, y + 1)) {
+                int key = encode(orientation.getCanonicalRotation(), x, y, width, height);
+                if (!placed.get(key)) {
+                    placed.set(key);
+                    placements.add(new Placement(type, rotation, x, y, buildPath(state)));
+                }
+            }
+
+            for (int m = 0; m < MOVES.length; m++) {
+                int nextRotation = rotation;
+                int nextX = x;
+                int nextY = y;
+                switch (MOVES[m]) {
+                    case DOWN -> nextY++;
+                    case LEFT -> nextX--;
+                    case RIGHT -> nextX++;
+                    default -> nextRotation = (rotation + 1) & (ROTATION_COUNT - 1);
+                }
+                if (!movement.canPlace(PieceOrientation.get(type, nextRotation), nextX, nextY)) {
+                    continue;
+                }
+                int next = encode(nextRotation, nextX, nextY, width, height);
+                if (!visited.get(next)) {
+                    visited.set(next);
+                    parent[next] = state;
+                    parentMove[next] = (byte) m;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return placements;
+    }
+
+    // Packs a state into a single index; x and y are already known to be on the board.
+    private static int encode(int rotation, int x, int y, int width, int height) {
+        return (rotation * height + y) * width + x;
+    }
+
+    // Walks the parent links back to the start to recover the inputs, in order.
+    private GameInput[] buildPath(int state) {
+        int length = 0;
+        for (int s = state; parent[s] != -1; s = parent[s]) {
+            length++;
+        }
+        GameInput[] path = new GameInput[length];
+        for (int s = state; parent[s] != -1; s = parent[s]) {
+            path[--length] = MOVES[parentMove[s]];
+        }
+        return path;
+    }
+
+    // Grows the reusable search arrays when a larger board is searched.
+    private void ensureCapacity(int stateCount) {
+        if (queue.length < stateCount) {
+            queue = new int[stateCount];
+            parent = new int[stateCount];
+            parentMove = new byte[stateCount];
+        }
+    }
+}
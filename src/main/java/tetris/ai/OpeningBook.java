@@ -0,0 +1,292 @@
+/*
+ * OpeningBook.java
+ *
+ * This class is a persistent, read-only cache of the best placements found for early-game
+ * positions. Each entry is keyed by the board's Zobrist hash combined with a fixed-length
+ * prefix of the piece queue (the current piece and the next few previews). Bots ask the book
+ * before searching, so the first pieces of a game, which are the same across many games, cost
+ * a lookup instead of a search.
+ *
+ * The book is built offline (see BookBuilder) and stored as one binary file, which is mapped
+ * into memory the first time it is used instead of being read at startup. Entries sit in an
+ * open-addressed hash table, so a lookup touches one or two slots of the mapping. Lookups only
+ * read from the mapping, so any number of threads can share one book.
+ *
+ * File format (big-endian):
+ *   - Header: magic "TBOK", format version, board width, board height, queue prefix length,
+ *     slot count (a power of two) and entry count, each a 4-byte int.
+ *   - Slots: an 8-byte key, then one byte each for type ordinal + 1 (0 marks an empty slot),
+ *     rotation, x and y of the stored placement.
+ *
+ * Author: Justin Morgan
+ * Last Updated Date: 12/09/2024
+ *
+ * Usage:
+ *   - Create with OpeningBook.open(path); nothing is read until the first lookup.
+ *   - Call lookup(board, pieces, generator) to get a routed Placement, or null on a miss.
+ *   - Build a file with OpeningBook.Builder, adding entries and then calling write(path).
+ *
+ * Dependencies:
+ *   - Zobrist and GameBoard.getHash for the keys
+ *   - MoveGenerator for turning a stored placement back into a route of inputs
+ */
+
+package main.java.tetris.ai;
+
+import main.java.tetris.model.GameBoard;
+import main.java.tetris.model.PieceOrientation;
+import main.java.tetris.model.PieceType;
+import main.java.tetris.model.Zobrist;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public final class OpeningBook {
+
+    public static final int MAGIC = 0x54424F4B;         // "TBOK"
+    public static final int FORMAT_VERSION = 1;
+    public static final int MAX_ENTRIES = 1 << 22;      // Caps a book file at about 100 MB
+    public static final Path DEFAULT_PATH = Paths.get("opening-book.bin");
+
+    private static final int HEADER_BYTES = 7 * Integer.BYTES;
+    private static final int SLOT_BYTES = Long.BYTES + 4;
+
+    private final Path path;
+    private final Object loadLock = new Object();
+    private volatile boolean loaded;
+    private MappedByteBuffer buffer;                     // Null if the file was missing or invalid
+    private int width;
+    private int height;
+    private int queueLength;
+    private int slotMask;
+    private int entryCount;
+
+    private OpeningBook(Path path) {
+        this.path = path;
+    }
+
+    // Creates a book backed by the given file. The file is not opened until the first lookup.
+    public static OpeningBook open(Path path) {
+        return new OpeningBook(path);
+    }
+
+    /*
+     * Looks up the stored placement for a board and the upcoming pieces (pieces[0] is the piece
+     * to place) and routes it on the board with the given generator. Returns null if the book
+     * has no entry, does not match the board size, or the stored placement is not reachable.
+     */
+    public Placement lookup(GameBoard board, PieceType[] pieces, MoveGenerator generator) {
+        load();
+        if (buffer == null || board.getWidth() != width || board.getHeight() != height
+                || pieces.length < queueLength) {
+            return null;
+        }
+        long key = key(board, pieces, queueLength);
+        for (int slot = slotOf(key, slotMask); ; slot = (slot + 1) & slotMask) {
+            int offset = HEADER_BYTES + slot * SLOT_BYTES;
+            int type = buffer.get(offset + Long.BYTES);
+            if (type == 0) {
+                return null;
+            }
+            if (buffer.getLong(offset) == key) {
+                return route(board, pieces[0], buffer.get(offset + Long.BYTES + 1),
+                        buffer.get(offset + Long.BYTES + 2), buffer.get(offset + Long.BYTES + 3), generator);
+            }
+        }
+    }
+
+    // Retrieves the number of entries in the book, loading it if necessary (0 if it failed to load).
+    public int size() {
+        load();
+        return buffer == null ? 0 : entryCount;
+    }
+
+    // Retrieves the number of queued pieces, including the current one, that each key covers.
+    public int getQueueLength() {
+        load();
+        return queueLength;
+    }
+
+    // Combines a board hash with the first queueLength upcoming pieces into one book key.
+    public static long key(GameBoard board, PieceType[] pieces, int queueLength) {
+        long key = board.getHash();
+        for (int i = 0; i < queueLength; i++) {
+            key ^= Zobrist.queueKey(pieces[i], i);
+        }
+        return key;
+    }
+
+    // Maps the file and validates its header, once. A bad or missing file is reported and leaves the book empty.
+    private void load() {
+        if (loaded) {
+            return;
+        }
+        synchronized (loadLock) {
+            if (loaded) {
+                return;
+            }
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                if (channel.size() < HEADER_BYTES) {
+                    throw new IOException("Not an opening book: " + path);
+                }
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                if (mapped.getInt(0) != MAGIC) {
+                    throw new IOException("Not an opening book: " + path);
+                }
+                if (mapped.getInt(4) != FORMAT_VERSION) {
+                    throw new IOException("Unsupported opening book version " + mapped.getInt(4) + ": " + path);
+                }
+                int slots = mapped.getInt(20);
+                // A full table would make missed lookups probe forever, so at least one slot must be empty
+                if (Integer.bitCount(slots) != 1 || mapped.getInt(24) >= slots
+                        || channel.size() != HEADER_BYTES + (long) slots * SLOT_BYTES) {
+                    throw new IOException("Corrupt opening book: " + path);
+                }
+                width = mapped.getInt(8);
+                height = mapped.getInt(12);
+                queueLength = mapped.getInt(16);
+                slotMask = slots - 1;
+                entryCount = mapped.getInt(24);
+                buffer = mapped;
+            } catch (NoSuchFileException e) {
+                System.err.println("Opening book not found: " + path);
+            } catch (IOException e) {
+                System.err.println("Opening book not loaded: " + e.getMessage());
+            }
+            loaded = true;
+        }
+    }
+
+    // Finds the reachable placement with the stored rotation and position, or null.
+    private static Placement route(GameBoard board, PieceType type, int rotation, int x, int y,
+                                   MoveGenerator generator) {
+        int canonical = PieceOrientation.get(type, rotation).getCanonicalRotation();
+        List<Placement> placements = generator.generate(board, type);
+        for (Placement placement : placements) {
+            if (placement.getX() == x && placement.getY() == y
+                    && placement.getOrientation().getCanonicalRotation() == canonical) {
+                return placement;
+            }
+        }
+        return null;
+    }
+
+    // Folds a key into a slot index; Zobrist keys are already well mixed, so no extra hashing is needed.
+    private static int slotOf(long key, int mask) {
+        return (int) (key ^ (key >>> 32)) & mask;
+    }
+
+    /*
+     * Collects entries in memory and writes them out as a book file. The first placement added
+     * for a key is kept, and entries beyond maxEntries are ignored.
+     */
+    public static final class Builder {
+        private final int width;
+        private final int height;
+        private final int queueLength;
+        private final int maxEntries;
+        private final Map<Long, Placement> entries = new LinkedHashMap<>();
+
+        public Builder(int width, int height, int queueLength, int maxEntries) {
+            if (queueLength < 1 || maxEntries < 1 || maxEntries > MAX_ENTRIES) {
+                throw new IllegalArgumentException("Queue length must be positive and entries between 1 and "
+                        + MAX_ENTRIES);
+            }
+            if (width > Byte.MAX_VALUE || height > Byte.MAX_VALUE) {
+                throw new IllegalArgumentException("Placements are stored in single bytes; board is too large");
+            }
+            this.width = width;
+            this.height = height;
+            this.queueLength = queueLength;
+            this.maxEntries = maxEntries;
+        }
+
+        /*
+         * Records the placement to play for a board and queue. Returns false if the key was
+         * already present or the book is full.
+         */
+        public boolean add(GameBoard board, PieceType[] pieces, Placement placement) {
+            if (board.getWidth() != width || board.getHeight() != height || pieces.length < queueLength) {
+                throw new IllegalArgumentException("Board or queue does not match the book");
+            }
+            if (isFull()) {
+                return false;
+            }
+            return entries.putIfAbsent(key(board, pieces, queueLength), placement) == null;
+        }
+
+        // Retrieves the placement added for this board and queue, or null if there is none yet.
+        public Placement get(GameBoard board, PieceType[] pieces) {
+            return entries.get(key(board, pieces, queueLength));
+        }
+
+        // Returns true once maxEntries entries have been added.
+        public boolean isFull() {
+            return entries.size() >= maxEntries;
+        }
+
+        // Retrieves the number of entries added so far.
+        public int size() {
+            return entries.size();
+        }
+
+        // Retrieves the number of queued pieces, including the current one, that each key covers.
+        public int getQueueLength() {
+            return queueLength;
+        }
+
+        /*
+         * Writes the book file. The table is kept at most half full so that probes stay short.
+         * The file is written next to the target and moved into place, so readers never see a
+         * partial file. File systems that cannot move atomically get a plain replacing move.
+         */
+        public void write(Path target) throws IOException {
+            int slots = Integer.highestOneBit(Math.max(1, entries.size() * 2 - 1)) << 1;
+            ByteBuffer out = ByteBuffer.allocate(HEADER_BYTES + slots * SLOT_BYTES);
+            out.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(width).putInt(height)
+                    .putInt(queueLength).putInt(slots).putInt(entries.size());
+            int mask = slots - 1;
+            for (Map.Entry<Long, Placement> entry : entries.entrySet()) {
+                long key = entry.getKey();
+                int slot = slotOf(key, mask);
+                while (out.get(HEADER_BYTES + slot * SLOT_BYTES + Long.BYTES) != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                Placement placement = entry.getValue();
+                int offset = HEADER_BYTES + slot * SLOT_BYTES;
+                out.putLong(offset, key);
+                out.put(offset + Long.BYTES, (byte) (placement.getType().ordinal() + 1));
+                out.put(offset + Long.BYTES + 1, (byte) placement.getRotation());
+                out.put(offset + Long.BYTES + 2, (byte) placement.getX());
+                out.put(offset + Long.BYTES + 3, (byte) placement.getY());
+            }
+            out.clear();
+
+            Path absolute = target.toAbsolutePath();
+            Path temp = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (out.hasRemaining()) {
+                    channel.write(out);
+                }
+            }
+            try {
+                Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+}
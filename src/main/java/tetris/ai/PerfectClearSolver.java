@@ -0,0 +1,330 @@
+/*
+ * PerfectClearSolver.java
+ *
+ * This class decides whether a board can be cleared completely (a "perfect clear") with a known
+ * sequence of upcoming pieces, and finds the placements that do it. The piece count fixes how
+ * many lines the clear must take: after k more pieces the stack holds filled + 4k cells, which
+ * must be a whole number of rows. The solver tries each possible k in turn, fewest pieces
+ * first, and runs a depth-first search in which every piece must stay inside that many rows.
+ *
+ * Branches are pruned before they are expanded:
+ *   - Cell count: the empty cells left in the target rows must be exactly what the remaining
+ *     pieces cover.
+ *   - Column parity: with columns coloured alternately, O, S and Z always cover two cells of
+ *     each colour, L and J cover three of one, T covers two or three of one, and I covers two or
+ *     four of one. The gap between the colours of the empty cells must be something the
+ *     remaining pieces can make. Line clears only move cells vertically, so this test stays
+ *     exact across clears, which a checkerboard test would not.
+ *   - Memoization: positions already shown to fail are kept in a shared TranspositionTable,
+ *     keyed by the board's Zobrist hash (which is canonical because cleared rows are compacted)
+ *     together with the pieces still to place and the rows still to fill. The table is kept
+ *     between calls, so repeated queries on related boards reuse earlier work.
+ *
+ * The placements of the first piece are searched as independent subtrees on a ForkJoinPool.
+ * The first subtree to find a solution stops the others.
+ *
+ * Author: Justin Morgan
+ * Last Updated Date: 12/09/2024
+ *
+ * Usage:
+ *   - Instantiate PerfectClearSolver (optionally with a pool and memo table size).
+ *   - Call solve(board, pieces, maxPieces) to get the placements in order, or null if no perfect
+ *     clear is possible. An empty list means the board is already clear.
+ *
+ * Dependencies:
+ *   - MoveGenerator for reachable placements (tucks and spins included)
+ *   - TranspositionTable for memoizing failed positions
+ *   - Zobrist for combining the board hash with the search state
+ */
+
+package main.java.tetris.ai;
+
+import main.java.tetris.mechanics.GameInput;
+import main.java.tetris.model.GameBoard;
+import main.java.tetris.model.Piece;
+import main.java.tetris.model.PieceOrientation;
+import main.java.tetris.model.PieceType;
+import main.java.tetris.model.Zobrist;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class PerfectClearSolver {
+
+    public static final int DEFAULT_TABLE_CAPACITY = 1 << 20;
+
+    private static final int CELLS_PER_PIECE = 4;
+    private static final int MAX_PIECE_HEIGHT = 4;      // Rows the tallest orientation (a vertical I) covers
+
+    private final ForkJoinPool pool;
+    private final TranspositionTable<Boolean> failed;
+
+    public PerfectClearSolver() {
+        this(ForkJoinPool.commonPool(), DEFAULT_TABLE_CAPACITY);
+    }
+
+    public PerfectClearSolver(ForkJoinPool pool, int tableCapacity) {
+        this.pool = pool;
+        this.failed = new TranspositionTable<>(tableCapacity);
+    }
+
+    /*
+     * Finds placements of pieces[0], pieces[1], ... that leave the board empty, using at most
+     * maxPieces pieces. Returns the placements in order, or null if no perfect clear exists.
+     */
+    public List<Placement> solve(GameBoard board, PieceType[] pieces, int maxPieces) {
+        int width = board.getWidth();
+        int filled = 0;
+        int stackHeight = 0;
+        for (int x = 0; x < width; x++) {
+            filled += board.getColumnHeight(x) - board.getColumnHoles(x);
+            stackHeight = Math.max(stackHeight, board.getColumnHeight(x));
+        }
+        if (filled == 0) {
+            return Collections.emptyList();
+        }
+
+        int limit = Math.min(maxPieces, pieces.length);
+        for (int count = 1; count <= limit; count++) {
+            int cells = filled + CELLS_PER_PIECE * count;
+            if (cells % width != 0) {
+                continue;
+            }
+            int lines = cells / width;
+            if (lines < stackHeight || lines > board.getHeight()) {
+                continue;
+            }
+            List<Placement> solution = solveExactly(board, pieces, count, lines);
+            if (solution != null) {
+                return solution;
+            }
+        }
+        return null;
+    }
+
+    // Retrieves the memo table, for its hit statistics.
+    public TranspositionTable<Boolean> getTable() {
+        return failed;
+    }
+
+    // Searches for a clear of exactly the given number of lines with exactly count pieces.
+    private List<Placement> solveExactly(GameBoard board, PieceType[] pieces, int count, int lines) {
+        Search root = new Search(pieces, count, board.getWidth(), board.getHeight());
+        if (!root.feasible(board, 0, lines)) {
+            return null;
+        }
+        List<Placement> firstMoves = root.candidates(board, 0, lines);
+        AtomicBoolean solved = new AtomicBoolean();
+        List<SubtreeTask> tasks = new ArrayList<>(firstMoves.size());
+        for (Placement placement : firstMoves) {
+            tasks.add(new SubtreeTask(board, pieces, count, lines, placement, root.drops[0], solved));
+        }
+        return pool.invoke(new RecursiveTask<List<Placement>>() {
+            @Override
+            protected List<Placement> compute() {
+                invokeAll(tasks);
+                for (SubtreeTask task : tasks) {
+                    List<Placement> solution = task.join();
+                    if (solution != null) {
+                        return solution;
+                    }
+                }
+                return null;
+            }
+        });
+    }
+
+    // Searches everything below one placement of the first piece.
+    private final class SubtreeTask extends RecursiveTask<List<Placement>> {
+        private static final long serialVersionUID = 1L;
+
+        private final GameBoard board;
+        private final PieceType[] pieces;
+        private final int count;
+        private final int lines;
+        private final Placement first;
+        private final int firstDrop;
+        private final AtomicBoolean solved;
+
+        SubtreeTask(GameBoard board, PieceType[] pieces, int count, int lines, Placement first, int firstDrop,
+                    AtomicBoolean solved) {
+            this.board = board;
+            this.pieces = pieces;
+            this.count = count;
+            this.lines = lines;
+            this.first = first;
+            this.firstDrop = firstDrop;
+            this.solved = solved;
+        }
+
+        @Override
+        protected List<Placement> compute() {
+            if (solved.get()) {
+                return null;
+            }
+            Search search = new Search(pieces, count, board.getWidth(), board.getHeight());
+            search.levels[1].copyFrom(board);
+            int rowsLeft = lines - first.applyTo(search.levels[1]);
+            search.path[0] = first;
+            search.drops[0] = firstDrop;
+            if (!search.dfs(1, rowsLeft, solved)) {
+                return null;
+            }
+            solved.set(true);
+            List<Placement> solution = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                solution.add(fromSpawn(search.path[i], search.drops[i]));
+            }
+            return solution;
+        }
+    }
+
+    // Depth-first search state for one subtree: a board per level and the path taken so far.
+    private final class Search {
+        final PieceType[] pieces;
+        final int count;
+        final GameBoard[] levels;
+        final Placement[] path;
+        final long[] queueKeys;             // Key of the pieces still to place, from each index on
+        final int[] drops;                  // Rows each level's routes start below the spawn row
+        final MoveGenerator generator = new MoveGenerator();
+
+        Search(PieceType[] pieces, int count, int width, int height) {
+            this.pieces = pieces;
+            this.count = count;
+            this.levels = new GameBoard[count + 1];
+            for (int i = 0; i < levels.length; i++) {
+                levels[i] = new GameBoard(width, height);
+            }
+            this.path = new Placement[count];
+            this.drops = new int[count];
+            this.queueKeys = new long[count + 1];
+            for (int i = count - 1; i >= 0; i--) {
+                for (int j = i; j < count; j++) {
+                    queueKeys[i] ^= Zobrist.queueKey(pieces[j], j - i);
+                }
+            }
+        }
+
+        // Returns true if pieces[index..count-1] can clear the board on levels[index].
+        boolean dfs(int index, int rowsLeft, AtomicBoolean solved) {
+            GameBoard board = levels[index];
+            if (index == count) {
+                return rowsLeft == 0;
+            }
+            if (solved.get() || !feasible(board, index, rowsLeft)) {
+                return false;
+            }
+            long key = board.getHash() ^ queueKeys[index] ^ Zobrist.rowsLeftKey(rowsLeft);
+            if (failed.get(key) != null) {
+                return false;
+            }
+            for (Placement placement : candidates(board, index, rowsLeft)) {
+                GameBoard next = levels[index + 1];
+                next.copyFrom(board);
+                int cleared = placement.applyTo(next);
+                path[index] = placement;
+                if (dfs(index + 1, rowsLeft - cleared, solved)) {
+                    return true;
+                }
+            }
+            if (!solved.get()) {
+                // A search cut short by another subtree's solution proves nothing, so only complete failures are stored
+                failed.put(key, Boolean.FALSE, count - index);
+            }
+            return false;
+        }
+
+        /*
+         * Lists placements of pieces[index] that keep every cell inside the target rows. Everything
+         * above those rows is empty, so the routes are searched from just above them rather than
+         * from the spawn row; drops[index] records how far the start was lowered.
+         */
+        List<Placement> candidates(GameBoard board, int index, int rowsLeft) {
+            int top = board.getHeight() - rowsLeft;
+            Piece spawn = new Piece(pieces[index], board.getWidth());
+            int startY = Math.max(spawn.getY(), top - MAX_PIECE_HEIGHT);
+            drops[index] = startY - spawn.getY();
+            List<Placement> placements = generator.generate(board,
+                    new Piece(pieces[index], spawn.getRotation(), spawn.getX(), startY));
+            List<Placement> inside = new ArrayList<>(placements.size());
+            for (Placement placement : placements) {
+                if (placement.getY() + topRow(placement.getOrientation()) >= top) {
+                    inside.add(placement);
+                }
+            }
+            return inside;
+        }
+
+        /*
+         * Applies the cell count and column parity tests to a position with pieces[index..count-1]
+         * still to place. Returns false if no perfect clear can follow.
+         */
+        boolean feasible(GameBoard board, int index, int rowsLeft) {
+            int width = board.getWidth();
+            int empty = 0;
+            int parityGap = 0;
+            for (int x = 0; x < width; x++) {
+                int columnHeight = board.getColumnHeight(x);
+                if (columnHeight > rowsLeft) {
+                    return false;
+                }
+                int columnEmpty = rowsLeft - columnHeight + board.getColumnHoles(x);
+                empty += columnEmpty;
+                parityGap += (x & 1) == 0 ? columnEmpty : -columnEmpty;
+            }
+            if (empty != CELLS_PER_PIECE * (count - index)) {
+                return false;
+            }
+
+            // Largest gap each piece can make, and whether it can change the gap by 2 mod 4
+            int reach = 0;
+            int forcedTwos = 0;
+            boolean flexible = false;
+            for (int i = index; i < count; i++) {
+                switch (pieces[i]) {
+                    case I -> reach += 4;
+                    case T -> {
+                        reach += 2;
+                        flexible = true;
+                    }
+                    case L, J -> {
+                        reach += 2;
+                        forcedTwos++;
+                    }
+                    default -> {
+                    }
+                }
+            }
+            int gap = Math.abs(parityGap);
+            if (gap > reach) {
+                return false;
+            }
+            return flexible || (gap - 2 * forcedTwos) % 4 == 0;
+        }
+    }
+
+    // Prefixes a route with the straight drop from the spawn row to where its search started.
+    private static Placement fromSpawn(Placement placement, int drop) {
+        GameInput[] path = new GameInput[drop + placement.getPathLength()];
+        Arrays.fill(path, 0, drop, GameInput.DOWN);
+        for (int i = 0; i < placement.getPathLength(); i++) {
+            path[drop + i] = placement.getInput(i);
+        }
+        return new Placement(placement.getType(), placement.getRotation(), placement.getX(), placement.getY(), path);
+    }
+
+    // Retrieves the row offset of the highest filled cell of an orientation.
+    private static int topRow(PieceOrientation orientation) {
+        int top = Integer.MAX_VALUE;
+        for (int i = 0; i < orientation.getCellCount(); i++) {
+            top = Math.min(top, orientation.getCellY(i));
+        }
+        return top;
+    }
+}
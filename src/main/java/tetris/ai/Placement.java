@@ -0,0 +1,91 @@
+/*
+ * Placement.java
+ *
+ * This class describes one final resting position for a piece, together with the shortest
+ * sequence of inputs that moves a freshly spawned piece there. Sending the path and then one
+ * more DOWN (or a HARD_DROP) locks the piece in this placement.
+ *
+ * Author: Justin Morgan
+ * Last Updated Date: 12/09/2024
+ *
+ * Dependencies:
+ *   - GameInput for the input path
+ *   - PieceType and PieceOrientation for the piece being placed
+ */
+
+package main.java.tetris.ai;
+
+import main.java.tetris.mechanics.GameInput;
+import main.java.tetris.model.GameBoard;
+import main.java.tetris.model.PieceOrientation;
+import main.java.tetris.model.PieceType;
+
+public final class Placement {
+
+    private final PieceType type;
+    private final int rotation;
+    private final int x;
+    private final int y;
+    private final GameInput[] path;
+
+    public Placement(PieceType type, int rotation, int x, int y, GameInput[] path) {
+        this.type = type;
+        this.rotation = rotation;
+        this.x = x;
+        this.y = y;
+        this.path = path;
+    }
+
+    // Retrieves the type of the piece being placed.
+    public PieceType getType() {
+        return type;
+    }
+
+    // Retrieves the rotation index of the piece when it comes to rest.
+    public int getRotation() {
+        return rotation;
+    }
+
+    // Retrieves the precomputed orientation of the piece when it comes to rest.
+    public PieceOrientation getOrientation() {
+        return PieceOrientation.get(type, rotation);
+    }
+
+    // Retrieves the X position of the piece when it comes to rest.
+    public int getX() {
+        return x;
+    }
+
+    // Retrieves the Y position of the piece when it comes to rest.
+    public int getY() {
+        return y;
+    }
+
+    // Retrieves the number of inputs in the shortest path to this placement.
+    public int getPathLength() {
+        return path.length;
+    }
+
+    // Retrieves one input of the shortest path.
+    public GameInput getInput(int index) {
+        return path[index];
+    }
+
+    /*
+     * Locks the piece into the board at this placement and clears any completed lines.
+     * Returns the number of lines cleared.
+     */
+    public int applyTo(GameBoard board) {
+        PieceOrientation orientation = getOrientation();
+        int pieceIndex = type.ordinal() + 1;
+        for (int i = 0; i < orientation.getCellCount(); i++) {
+            board.setCell(x + orientation.getCellX(i), y + orientation.getCellY(i), pieceIndex);
+        }
+        return board.clearFullRows(y, y + orientation.getHeight() - 1).getCount();
+    }
+
+    @Override
+    public String toString() {
+        return type + " r" + rotation + " @(" + x + "," + y + ") in " + path.length + " inputs";
+    }
+}
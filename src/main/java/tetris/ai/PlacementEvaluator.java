@@ -0,0 +1,269 @@
+/*
+ * PlacementEvaluator.java
+ *
+ * This class picks the best placement for the current piece by looking one piece ahead: every
+ * reachable placement of the current piece is tried, then every placement of the next piece
+ * on the resulting board, and each final board is rated with HeuristicWeights. The current
+ * piece's placement is then rated by its best follow-up.
+ *
+ * The candidate placements are split across a ForkJoinPool. Each worker thread keeps its own
+ * scratch boards and MoveGenerator and reuses them between tasks, so the boards are copied into
+ * instead of allocated for every candidate. BeamSearch scores each ply's placements through
+ * scoreAll the same way.
+ *
+ * Author: Justin Morgan
+ * Last Updated Date: 12/09/2024
+ *
+ * Usage:
+ *   - Instantiate PlacementEvaluator with weights (and optionally a pool).
+ *   - Call evaluate(board, current, next) to get the best Evaluation; next may be null.
+ *   - Or call evaluate(engine) to use the engine's current and next pieces.
+ *   - Call scoreAll(board, placements, lines) to score a list of placements without lookahead.
+ *
+ * Dependencies:
+ *   - MoveGenerator for the candidate placements
+ *   - HeuristicWeights for scoring boards
+ */
+
+package main.java.tetris.ai;
+
+import main.java.tetris.mechanics.GameEngine;
+import main.java.tetris.model.GameBoard;
+import main.java.tetris.model.Piece;
+import main.java.tetris.model.PieceType;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+public class PlacementEvaluator {
+
+    private static final int LEAF_SIZE = 2;        // Current-piece placements scored per fork-join leaf
+    private static final int SCORE_LEAF_SIZE = 8;  // Placements scored per leaf without lookahead
+
+    private final HeuristicWeights weights;
+    private final ForkJoinPool pool;
+
+    // Per-worker scratch state, rebuilt only when the board size changes
+    private final ThreadLocal<Scratch> scratch = new ThreadLocal<>();
+
+    public PlacementEvaluator(HeuristicWeights weights) {
+        this(weights, ForkJoinPool.commonPool());
+    }
+
+    public PlacementEvaluator(HeuristicWeights weights, ForkJoinPool pool) {
+        this.weights = weights;
+        this.pool = pool;
+    }
+
+    /*
+     * Finds the best placement of the current piece, looking ahead to the next piece if given.
+     * Returns null if the current piece has no legal placement.
+     */
+    public Evaluation evaluate(GameBoard board, PieceType current, PieceType next) {
+        List<Placement> candidates = scratchFor(board).generator.generate(board, current);
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        return pool.invoke(new EvaluateTask(board, candidates, next, 0, candidates.size()));
+    }
+
+    /*
+     * Finds the best placement for the engine's current piece, looking ahead to its next piece.
+     * Must be called on the thread that owns the engine. Returns null if the game is over.
+     */
+    public Evaluation evaluate(GameEngine engine) {
+        Piece current = engine.getCurrentPiece();
+        Piece next = engine.getNextPiece();
+        if (current == null || engine.isGameOver()) {
+            return null;
+        }
+        return evaluate(engine.getGameBoard(), current.getType(), next == null ? null : next.getType());
+    }
+
+    /*
+     * Scores every placement as applied to the board, without lookahead, and returns the
+     * results in the same order as the placements. Lines already cleared on the way to the
+     * board are passed in and added to each placement's own. Called from inside a ForkJoinPool,
+     * the work is split on that pool instead, so nested callers such as the tuner do not
+     * oversubscribe the machine.
+     */
+    public List<Evaluation> scoreAll(GameBoard board, List<Placement> placements, int lines) {
+        Evaluation[] results = new Evaluation[placements.size()];
+        ScoreTask task = new ScoreTask(board, placements, lines, results, 0, results.length);
+        if (ForkJoinTask.inForkJoinPool()) {
+            task.invoke();
+        } else {
+            pool.invoke(task);
+        }
+        return Arrays.asList(results);
+    }
+
+    // Retrieves the weights used to score boards.
+    public HeuristicWeights getWeights() {
+        return weights;
+    }
+
+    // Scores one current-piece placement by its best follow-up with the next piece.
+    private Evaluation scorePlacement(GameBoard board, Placement placement, PieceType next) {
+        Scratch work = scratchFor(board);
+        work.afterCurrent.copyFrom(board);
+        int lines = placement.applyTo(work.afterCurrent);
+        long hash = work.afterCurrent.getHash();
+        if (next == null) {
+            return new Evaluation(placement, weights.score(work.afterCurrent, lines), lines, hash);
+        }
+
+        List<Placement> followUps = work.generator.generate(work.afterCurrent, next);
+        double best = Double.NEGATIVE_INFINITY; // No follow-up means the next piece tops out
+        for (Placement followUp : followUps) {
+            work.afterNext.copyFrom(work.afterCurrent);
+            int nextLines = followUp.applyTo(work.afterNext);
+            best = Math.max(best, weights.score(work.afterNext, lines + nextLines));
+        }
+        return new Evaluation(placement, best, lines, hash);
+    }
+
+    // Scores one placement on its own, counting the lines already cleared before it.
+    private Evaluation scoreAlone(GameBoard board, Placement placement, int lines) {
+        GameBoard after = scratchFor(board).afterCurrent;
+        after.copyFrom(board);
+        int cleared = lines + placement.applyTo(after);
+        return new Evaluation(placement, weights.score(after, cleared), cleared, after.getHash());
+    }
+
+    // Returns this thread's scratch state, sized for the given board.
+    private Scratch scratchFor(GameBoard board) {
+        Scratch work = scratch.get();
+        if (work == null || work.afterCurrent.getWidth() != board.getWidth()
+                || work.afterCurrent.getHeight() != board.getHeight()) {
+            work = new Scratch(board.getWidth(), board.getHeight());
+            scratch.set(work);
+        }
+        return work;
+    }
+
+    // A scored placement, with the lines it cleared and the hash of the board it leaves.
+    public static final class Evaluation {
+        private final Placement placement;
+        private final double score;
+        private final int lines;
+        private final long hash;
+
+        Evaluation(Placement placement, double score, int lines, long hash) {
+            this.placement = placement;
+            this.score = score;
+            this.lines = lines;
+            this.hash = hash;
+        }
+
+        // Retrieves the chosen placement.
+        public Placement getPlacement() {
+            return placement;
+        }
+
+        // Retrieves the heuristic score of the chosen placement.
+        public double getScore() {
+            return score;
+        }
+
+        // Retrieves the lines cleared up to and including this placement.
+        public int getLines() {
+            return lines;
+        }
+
+        // Retrieves the Zobrist hash of the board right after this placement.
+        public long getHash() {
+            return hash;
+        }
+    }
+
+    // Reusable boards and generator owned by one worker thread.
+    private static final class Scratch {
+        final GameBoard afterCurrent;
+        final GameBoard afterNext;
+        final MoveGenerator generator = new MoveGenerator();
+
+        Scratch(int width, int height) {
+            this.afterCurrent = new GameBoard(width, height);
+            this.afterNext = new GameBoard(width, height);
+        }
+    }
+
+    // Scores a range of candidates, splitting in half until the range is small enough.
+    private final class EvaluateTask extends RecursiveTask<Evaluation> {
+        private static final long serialVersionUID = 1L;
+
+        private final GameBoard board;
+        private final List<Placement> candidates;
+        private final PieceType next;
+        private final int from;
+        private final int to;
+
+        EvaluateTask(GameBoard board, List<Placement> candidates, PieceType next, int from, int to) {
+            this.board = board;
+            this.candidates = candidates;
+            this.next = next;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Evaluation compute() {
+            if (to - from <= LEAF_SIZE) {
+                Evaluation best = null;
+                for (int i = from; i < to; i++) {
+                    Evaluation evaluation = scorePlacement(board, candidates.get(i), next);
+                    if (best == null || evaluation.score > best.score) {
+                        best = evaluation;
+                    }
+                }
+                return best;
+            }
+            int middle = (from + to) >>> 1;
+            EvaluateTask left = new EvaluateTask(board, candidates, next, from, middle);
+            left.fork();
+            Evaluation right = new EvaluateTask(board, candidates, next, middle, to).compute();
+            Evaluation leftBest = left.join();
+            // Prefer the earlier candidate on ties so results do not depend on scheduling
+            return right.score > leftBest.score ? right : leftBest;
+        }
+    }
+
+    // Scores a range of placements into their slots of the results array.
+    private final class ScoreTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final GameBoard board;
+        private final List<Placement> placements;
+        private final int lines;
+        private final Evaluation[] results;
+        private final int from;
+        private final int to;
+
+        ScoreTask(GameBoard board, List<Placement> placements, int lines, Evaluation[] results, int from, int to) {
+            this.board = board;
+            this.placements = placements;
+            this.lines = lines;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SCORE_LEAF_SIZE) {
+                for (int i = from; i < to; i++) {
+                    results[i] = scoreAlone(board, placements.get(i), lines);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ScoreTask(board, placements, lines, results, from, middle),
+                    new ScoreTask(board, placements, lines, results, middle, to));
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * SelfPlay.java
+ *
+ * This class plays one complete headless game with a BeamSearch bot. The bot's inputs go
+ * straight into a GameEngine, with no game loop and no gravity, so a game runs as fast as the
+ * search allows. The simulator and the weight tuner both play their games through this class.
+ *
+ * Author: Justin Morgan
+ * Last Updated Date: 12/09/2024
+ *
+ * Usage:
+ *   - Call SelfPlay.play(bot, mode, seed, maxPieces) and read the returned Result.
+ *   - The same bot, generator mode and seed always play the same game when the bot has no time budget.
+ *
+ * Dependencies:
+ *   - GameEngine and PieceGenerator for the game
+ *   - BeamSearch for choosing placements
+ */
+
+package main.java.tetris.ai;
+
+import main.java.tetris.mechanics.GameEngine;
+import main.java.tetris.mechanics.GameInput;
+import main.java.tetris.mechanics.PieceGenerator;
+
+public final class SelfPlay {
+
+    private SelfPlay() {
+    }
+
+    /*
+     * Plays a game on a standard board until it ends or maxPieces pieces have been placed.
+     * The bot is used by the calling thread only and must not be shared during the game.
+     */
+    public static Result play(BeamSearch bot, PieceGenerator.Mode mode, long seed, int maxPieces) {
+        GameEngine engine = new GameEngine(PieceGenerator.create(mode, seed));
+        while (!engine.isGameOver() && engine.getPiecesPlaced() < maxPieces) {
+            BeamSearch.Result result = bot.search(engine);
+            if (result == null) {
+                break;
+            }
+            Placement placement = result.getPlacement();
+            for (int i = 0; i < placement.getPathLength(); i++) {
+                engine.step(placement.getInput(i));
+            }
+            engine.step(GameInput.HARD_DROP);
+        }
+        return new Result(engine.getScore(), engine.getLinesCleared(), engine.getPiecesPlaced(),
+                engine.isGameOver());
+    }
+
+    // The outcome of one game.
+    public static final class Result {
+        private final int score;
+        private final int lines;
+        private final int pieces;
+        private final boolean toppedOut;
+
+        Result(int score, int lines, int pieces, boolean toppedOut) {
+            this.score = score;
+            this.lines = lines;
+            this.pieces = pieces;
+            this.toppedOut = toppedOut;
+        }
+
+        // Retrieves the final score.
+        public int getScore() {
+            return score;
+        }
+
+        // Retrieves the number of lines cleared.
+        public int getLines() {
+            return lines;
+        }
+
+        // Retrieves the number of pieces placed.
+        public int getPieces() {
+            return pieces;
+        }
+
+        // Returns true if the game ended by topping out rather than at the piece limit.
+        public boolean isToppedOut() {
+            return toppedOut;
+        }
+    }
+}
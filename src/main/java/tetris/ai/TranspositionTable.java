@@ -0,0 +1,121 @@
+/*
+ * TranspositionTable.java
+ *
+ * This class caches search results keyed by a Zobrist hash, so a search that reaches the same
+ * stack again can reuse the earlier result instead of expanding it. The table has a fixed
+ * number of slots chosen up front and never grows. Each hash maps to one slot, and a new entry
+ * only replaces an older one for a different position when it was searched at least as deep.
+ * Slots are guarded by a small set of striped locks so that many search threads can share
+ * one table without contending on a single monitor.
+ *
+ * Author: Justin Morgan
+ * Last Updated Date: 12/09/2024
+ *
+ * Usage:
+ *   - Instantiate TranspositionTable with the number of slots to keep.
+ *   - Call get(hash) before searching a position and put(hash, value, depth) afterwards.
+ *
+ * Dependencies:
+ *   - GameBoard.getHash and Zobrist for the keys
+ */
+
+package main.java.tetris.ai;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public class TranspositionTable<V> {
+
+    private static final int LOCK_STRIPES = 64; // Number of independent locks (power of two)
+
+    private final long[] keys;
+    private final Object[] values;
+    private final int[] depths;
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    private final int mask;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    // Creates a table with at least the given number of slots (rounded up to a power of two).
+    public TranspositionTable(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30: " + capacity);
+        }
+        int slots = Integer.highestOneBit(capacity);
+        if (slots < capacity) {
+            slots <<= 1;
+        }
+        this.keys = new long[slots];
+        this.values = new Object[slots];
+        this.depths = new int[slots];
+        this.mask = slots - 1;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    // Retrieves the value stored for a hash, or null if the slot holds a different position.
+    @SuppressWarnings("unchecked")
+    public V get(long hash) {
+        int slot = slotOf(hash);
+        synchronized (locks[slot & (LOCK_STRIPES - 1)]) {
+            if (values[slot] != null && keys[slot] == hash) {
+                hits.increment();
+                return (V) values[slot];
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    /*
+     * Stores a value for a hash. An existing entry for the same hash is always updated; an
+     * entry for a different position is only evicted if the new one was searched as deep or deeper.
+     */
+    public void put(long hash, V value, int depth) {
+        if (value == null) {
+            throw new IllegalArgumentException("Transposition table values must not be null");
+        }
+        int slot = slotOf(hash);
+        synchronized (locks[slot & (LOCK_STRIPES - 1)]) {
+            if (values[slot] == null || keys[slot] == hash || depth >= depths[slot]) {
+                keys[slot] = hash;
+                values[slot] = value;
+                depths[slot] = depth;
+            }
+        }
+    }
+
+    // Removes every entry and resets the hit statistics.
+    public void clear() {
+        for (int stripe = 0; stripe < LOCK_STRIPES; stripe++) {
+            synchronized (locks[stripe]) {
+                for (int slot = stripe; slot < values.length; slot += LOCK_STRIPES) {
+                    values[slot] = null;
+                    depths[slot] = 0;
+                }
+            }
+        }
+        hits.reset();
+        misses.reset();
+    }
+
+    // Retrieves the number of slots in the table.
+    public int capacity() {
+        return values.length;
+    }
+
+    // Retrieves the number of lookups that found an entry.
+    public long getHits() {
+        return hits.sum();
+    }
+
+    // Retrieves the number of lookups that found nothing.
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    // Folds the high half of the hash into the low half so every key bit affects the slot.
+    private int slotOf(long hash) {
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
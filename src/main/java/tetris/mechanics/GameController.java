@@ -1,111 +1,117 @@
 /*
  * GameController.java
  *
- * This class manages the core mechanics of the Tetris game, including piece spawning,
- * movement, line clearing, scoring, and game over logic. It handles user interactions
- * via key bindings and updates the UI accordingly.
+ * This class connects a GameEngine to Swing. The engine owns the rules (piece spawning,
+ * movement, line clearing, scoring, and game over logic); the controller handles user
+ * interactions via key bindings and updates the UI accordingly. The engine runs on a GameLoop
+ * thread at a fixed timestep; the controller only queues inputs into it and renders the
+ * snapshots it publishes, so slow painting or dialogs never stall the game.
  *
  * Author: Justin Morgan
  * Last Updated Date: 12/03/2024
  *
  * Usage:
- *   - Instantiate GameController with a map of key bindings for movement and actions.
+ *   - Instantiate GameController with a map of key bindings for movement and actions,
+ *     and optionally the board dimensions.
  *   - Use setScoreLabel to link the score display to the game logic.
+ *   - Use setAutoRestart to start a new game on game over instead of asking (for bot play).
+ *   - Run with -Dtetris.renderFps=N to draw the board with an active renderer at N frames per
+ *     second; displays without accelerated buffers keep the default Swing painting.
  *
  * Dependencies:
  *   - Java AWT and Swing libraries for event handling and UI components.
- *   - GameBoard for managing the game state.
- *   - Movement for validating and executing piece movements.
+ *   - GameEngine for the game rules and state.
+ *   - GameLoop for running the engine at a fixed timestep off the Event Dispatch Thread.
  *   - GameBoardUI for rendering the game state and pieces.
  *
  * Constants:
- *   - MechanicsConstants: Shared constants like board dimensions and timer intervals.
+ *   - ModelConstants: Default board dimensions.
  */
 
 package main.java.tetris.mechanics;
 
+import main.java.tetris.model.ModelConstants;
 import main.java.tetris.model.Piece;
 import main.java.tetris.model.PieceType;
-import main.java.tetris.model.GameBoard;
 import main.java.tetris.ui.gameoverUi.GameOverUI;
 import main.java.tetris.ui.components.GameBoardUI;
 
 import javax.swing.*;
 import java.util.Map;
 import java.awt.event.*;
-import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
 
-import static main.java.tetris.mechanics.MechanicsConstants.*;
+public final class GameController {
 
-public class GameController {
-
-    private final GameBoard gameBoard;                  // Manages the state of the game board.
-    private final Movement movement;                    // Handles movement logic for pieces.
+    private final GameEngine engine;                    // Runs the game rules and holds the game state.
+    private final GameLoop gameLoop;                    // Ticks the engine on its own thread.
     private final GameBoardUI gameBoardUI;              // Renders the game board and pieces.
     private final Map<Integer, Runnable> keyBindings;   // Maps key events to actions.
+    private final AtomicBoolean viewUpdateQueued = new AtomicBoolean(); // Coalesces EDT updates.
 
-    private Piece currentPiece;                      // The piece currently controlled by the player.
-    private Piece nextPiece;                         // The next piece to be placed on the board.
-    private Timer timer;                             // Handles the automatic downward movement of pieces.
+    private Piece nextPiece;                         // The next piece shown in the preview (EDT only).
     private JLabel scoreLabel;                       // Displays the current score.
-    private int score;                               // Tracks the player's current score.
-    private final int LINE_CLEAR_SCORE;
-    public static final int TIMER_INTERVAL_MS = 500; // Timer interval for game updates (milliseconds)
+    private boolean gameOverShown;                   // Guards against opening the dialog twice.
+    private volatile boolean autoRestart;            // Restart on game over without the dialog.
+    public static final int TIMER_INTERVAL_MS = 500; // Time between gravity steps (milliseconds)
+    public static final String RENDER_FPS_PROPERTY = "tetris.renderFps"; // Active rendering rate (0 = off)
 
     // Game Over dialog messages
     public static final String GAME_OVER_MESSAGE = "Game Over! Do you want to play again?";
     public static final String GAME_OVER_TITLE = "Game Over";
 
     public GameController(Map<Integer, Runnable> keyBindings) {
-        this.gameBoard = new GameBoard();
-        this.movement = new Movement(gameBoard);
-        this.gameBoardUI = new GameBoardUI(gameBoard, null);
+        this(keyBindings, ModelConstants.BOARD_WIDTH, ModelConstants.BOARD_HEIGHT);
+    }
+
+    // Creates a controller for a board with the given number of columns and rows.
+    public GameController(Map<Integer, Runnable> keyBindings, int boardWidth, int boardHeight) {
+        this.engine = new GameEngine(boardWidth, boardHeight,
+                PieceGenerator.create(PieceGenerator.Mode.UNIFORM, System.nanoTime()));
+        this.engine.setGravityInterval(TIMER_INTERVAL_MS * GameLoop.TICKS_PER_SECOND / 1000);
+        this.gameLoop = new GameLoop(engine, snapshot -> queueViewUpdate());
+        this.gameBoardUI = new GameBoardUI(gameLoop.getSnapshot());
         this.keyBindings = keyBindings;
-        this.score = 0;
-        this.LINE_CLEAR_SCORE = 100;
+
+        int renderFps = Integer.getInteger(RENDER_FPS_PROPERTY, 0);
+        if (renderFps > 0 && !gameBoardUI.enableActiveRendering(gameLoop::getSnapshot, renderFps)) {
+            System.err.println("Accelerated buffers unavailable; using Swing painting.");
+        }
 
         initKeyListener();
-        spawnNewPiece();
-        initTimer();
+        syncView();
+        gameLoop.start();
     }
 
     // Moves the current piece left if possible.
     public void moveLeft() {
-        if (currentPiece != null && movement.moveLeft(currentPiece)) {
-            gameBoardUI.repaint();
-        }
+        gameLoop.submit(GameInput.LEFT);
     }
 
     // Moves the current piece right if possible.
     public void moveRight() {
-        if (currentPiece != null && movement.moveRight(currentPiece)) {
-            gameBoardUI.repaint();
-        }
+        gameLoop.submit(GameInput.RIGHT);
     }
 
     // Moves the current piece down, or locks it in place if it cannot move further.
     public void moveDown() {
-        if (currentPiece != null) {
-            if (!movement.moveDown(currentPiece)) {
-                mergePieceToBoard();
-                clearFullLines();
-                spawnNewPiece();
-            }
-            gameBoardUI.repaint();
-        }
+        gameLoop.submit(GameInput.DOWN);
     }
 
     // Rotates the current piece if possible.
     public void rotate() {
-        if (currentPiece != null && movement.rotate(currentPiece)) {
-            gameBoardUI.repaint();
-        }
+        gameLoop.submit(GameInput.ROTATE);
+    }
+
+    // Drops the current piece to the bottom and locks it in place.
+    public void hardDrop() {
+        gameLoop.submit(GameInput.HARD_DROP);
     }
 
     // Links the score display to the controller.
     public void setScoreLabel(JLabel scoreLabel) {
         this.scoreLabel = scoreLabel;
-        updateScoreDisplay();
+        updateScoreDisplay(gameLoop.getSnapshot());
     }
 
     // Returns the next piece to be displayed in the UI.
@@ -113,26 +119,58 @@ public class GameController {
         return nextPiece;
     }
 
-    // Spawns a new piece on the board and checks for game over conditions.
-    private void spawnNewPiece() {
-        if (nextPiece == null) {
-            nextPiece = createRandomPiece();
+    // Sets whether a finished game restarts immediately instead of showing the game over dialog.
+    public void setAutoRestart(boolean autoRestart) {
+        this.autoRestart = autoRestart;
+    }
+
+    // Returns the loop running this controller's game.
+    public GameLoop getGameLoop() {
+        return gameLoop;
+    }
+
+    // Stops the game loop for good, e.g. when leaving the game screen.
+    public void stop() {
+        gameLoop.shutdown();
+    }
+
+    // Called on the loop thread after each published snapshot; schedules at most one pending EDT update.
+    private void queueViewUpdate() {
+        if (viewUpdateQueued.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(this::syncView);
         }
+    }
 
-        currentPiece = nextPiece;
-        nextPiece = createRandomPiece();
+    /*
+     * Pushes the latest snapshot to the UI: updates the next-piece preview, the score and the
+     * board, and opens the game over dialog once the game has ended. Runs on the EDT.
+     */
+    private void syncView() {
+        viewUpdateQueued.set(false);
+        GameSnapshot snapshot = gameLoop.getSnapshot();
 
-        gameBoardUI.setCurrentPiece(currentPiece);
-        gameBoardUI.setNextPiece(nextPiece);
+        PieceType nextType = snapshot.getNextType();
+        if (nextPiece == null || nextPiece.getType() != nextType) {
+            nextPiece = nextType == null ? null : new Piece(nextType);
+            gameBoardUI.setNextPiece(nextPiece);
+        }
+        updateScoreDisplay(snapshot);
+        gameBoardUI.setSnapshot(snapshot);
 
-        if (!movement.canMove(currentPiece, currentPiece.getX(), currentPiece.getY())) {
-            handleGameOver();
+        if (snapshot.isGameOver() && !gameOverShown) {
+            gameOverShown = true;
+            if (autoRestart) {
+                gameLoop.execute(engine::reset);
+            } else {
+                handleGameOver();
+            }
+        } else if (!snapshot.isGameOver()) {
+            // Cleared only once a reset is published, so a stale snapshot cannot end the game twice
+            gameOverShown = false;
         }
     }
 
     private void handleGameOver() {
-        timer.stop(); // Stop the game timer
-
         // Ensure the dialog is displayed on the Event Dispatch Thread
         SwingUtilities.invokeLater(() -> {
             JFrame parentFrame = (JFrame) SwingUtilities.getWindowAncestor(gameBoardUI);
@@ -152,6 +190,7 @@ public class GameController {
 
     // Navigates back to the main menu by replacing the current content pane.
     private void returnToMainMenu() {
+        stop();
         SwingUtilities.invokeLater(() -> {
             // Get the parent JFrame
             JFrame frame = (JFrame) SwingUtilities.getWindowAncestor(gameBoardUI);
@@ -171,57 +210,23 @@ public class GameController {
 
     // Resets the game state to start a new game.
     public void resetGame() {
-        // Clear the game board
-        gameBoard.clearBoard();
-        // Remove the current and next pieces
-        currentPiece = null; nextPiece = null;
-        // Reset the score
-        score = 0;
-        updateScoreDisplay();
-        // Ensure the timer is stopped before resetting
-        if (timer != null) { timer.stop();
-
-        }
-        // Repaint the game board UI to clear visuals
-        gameBoardUI.repaint();
-
-        // Start the timer after resetting the game
-        initTimer();
-        // Spawn a new piece to ensure the first piece is placed correctly
-        spawnNewPiece();
-    }
-
-    // Getter for the game timer
-    public Timer getTimer() {
-        return timer; // Expose the timer instance
+        // The engine belongs to the loop thread, so the reset is queued rather than run here;
+        // gameOverShown stays set until syncView sees the first snapshot of the new game
+        gameLoop.execute(engine::reset);
     }
 
     // Updates the score display in the UI.
-    private void updateScoreDisplay() {
+    private void updateScoreDisplay(GameSnapshot snapshot) {
         if (scoreLabel != null) {
-            scoreLabel.setText("Score: " + score);
+            scoreLabel.setText("Score: " + snapshot.getScore());
         }
     }
 
-    // Initializes the game timer for automatic piece descent.
-    private void initTimer() {
-        timer = new Timer(TIMER_INTERVAL_MS, e -> {
-            if (!movement.moveDown(currentPiece)) {
-                mergePieceToBoard();
-                clearFullLines();
-                spawnNewPiece();
-            }
-            gameBoardUI.repaint();
-        });
-        timer.start();
-    }
-
     // Initializes key listeners for controlling the game.
     private void initKeyListener() {
         gameBoardUI.addKeyListener(new KeyAdapter() {
             @Override
             public void keyPressed(KeyEvent e) {
-                if (currentPiece == null) return;
                 Runnable action = keyBindings.get(e.getKeyCode());
                 if (action != null) {
                     action.run();
@@ -230,61 +235,14 @@ public class GameController {
         });
         gameBoardUI.setFocusable(true);
         gameBoardUI.requestFocusInWindow();
-    }
 
-    // Merges the current piece into the game board.
-    private void mergePieceToBoard() {
-        int[][] shape = currentPiece.getShape();
-        int xPos = currentPiece.getX();
-        int yPos = currentPiece.getY();
-        int pieceIndex = currentPiece.getType().ordinal() + 1;
-
-        for (int i = 0; i < shape.length; i++) {
-            for (int j = 0; j < shape[0].length; j++) {
-                if (shape[i][j] != 0) {
-                    gameBoard.setCell(xPos + j, yPos + i, pieceIndex);
-                }
-            }
-        }
-    }
-
-    // Clears any full lines on the board and updates the score.
-    private void clearFullLines() {
-        for (int y = BOARD_HEIGHT - 1; y >= 0; y--) {
-            if (isFullLine(y)) {
-                clearLine(y);
-                y++; // Check the same line again since it was shifted.
-                score += LINE_CLEAR_SCORE;
-                updateScoreDisplay();
+        // Release the loop thread once the board is removed from its window
+        gameBoardUI.addHierarchyListener(e -> {
+            if ((e.getChangeFlags() & HierarchyEvent.DISPLAYABILITY_CHANGED) != 0
+                    && !gameBoardUI.isDisplayable()) {
+                stop();
             }
-        }
-    }
-
-    // Checks if a given line is full.
-    private boolean isFullLine(int y) {
-        for (int x = 0; x < BOARD_WIDTH; x++) {
-            if (gameBoard.getCell(x, y) == 0) {
-                return false;
-            }
-        }
-        return true;
-    }
-
-    // Clears a full line and shifts the above lines down.
-    private void clearLine(int y) {
-        for (int i = y; i > 0; i--) {
-            for (int x = 0; x < BOARD_WIDTH; x++) {
-                gameBoard.setCell(x, i, gameBoard.getCell(x, i - 1));
-            }
-        }
-        for (int x = 0; x < BOARD_WIDTH; x++) {
-            gameBoard.setCell(x, 0, 0);
-        }
-    }
-
-    // Creates a random Tetris piece.
-    private Piece createRandomPiece() {
-        return new Piece(PieceType.values()[new Random().nextInt(PieceType.values().length)]);
+        });
     }
 
     // Returns the game board UI component.
@@ -0,0 +1,296 @@
+/*
+ * GameEngine.java
+ *
+ * This class runs the rules of a single Tetris game: piece spawning, movement, gravity,
+ * locking, line clearing, scoring, and game over detection. It has no Swing or AWT
+ * dependency, so it can be driven from a UI adapter, a bot, or a headless simulation.
+ *
+ * Author: Justin Morgan
+ * Last Updated Date: 12/09/2024
+ *
+ * Usage:
+ *   - Instantiate GameEngine to start a new game with a fresh board and piece.
+ *     Pass a seeded PieceGenerator for a reproducible piece sequence, and board
+ *     dimensions for stress or sandbox modes.
+ *   - Call step(input) for each player action and tick() for each gravity step.
+ *   - Read the current state back through the getters after each call.
+ *
+ * Dependencies:
+ *   - GameBoard for managing the game state.
+ *   - Movement for validating and executing piece movements.
+ *   - GameInput for the set of player actions.
+ *   - PieceGenerator and PieceQueue for the piece sequence and preview.
+ */
+
+package main.java.tetris.mechanics;
+
+import main.java.tetris.model.Piece;
+import main.java.tetris.model.PieceOrientation;
+import main.java.tetris.model.GameBoard;
+import main.java.tetris.model.LineClearResult;
+import main.java.tetris.model.ModelConstants;
+import main.java.tetris.model.PieceType;
+
+import static main.java.tetris.mechanics.MechanicsConstants.*;
+
+public final class GameEngine {
+
+    public static final int LINE_CLEAR_SCORE = 100;  // Points awarded per cleared line
+
+    private final GameBoard gameBoard;               // Manages the state of the game board.
+    private final Movement movement;                 // Handles movement logic for pieces.
+    private final PieceQueue pieceQueue;             // Upcoming pieces after nextPiece.
+
+    private Piece currentPiece;                      // The piece currently controlled by the player.
+    private Piece nextPiece;                         // The next piece to be placed on the board.
+    private int score;                               // Tracks the player's current score.
+    private int linesCleared;                        // Total lines cleared this game.
+    private LineClearResult lastClear = LineClearResult.NONE; // Rows cleared by the most recent lock.
+    private Piece lastLocked;                        // The most recently locked piece, or null.
+    private int piecesPlaced;                        // Total pieces locked this game.
+    private int generation;                          // Games started by reset() so far.
+    private boolean gameOver;                        // Set once a new piece cannot spawn.
+    private int gravityInterval = 1;                 // Ticks between gravity steps.
+    private int gravityCounter;                      // Ticks since the last gravity step.
+
+    // Ghost piece cache: the landing row is only recomputed when one of these changes.
+    private int ghostY;
+    private Piece ghostPiece;
+    private int ghostX;
+    private int ghostRotation;
+    private long ghostBoardVersion = -1;
+
+    // Creates a game using the original uniform randomizer with a time-based seed.
+    public GameEngine() {
+        this(PieceGenerator.create(PieceGenerator.Mode.UNIFORM, System.nanoTime()));
+    }
+
+    // Creates a game on a standard board that draws its pieces from the given generator.
+    public GameEngine(PieceGenerator generator) {
+        this(ModelConstants.BOARD_WIDTH, ModelConstants.BOARD_HEIGHT, generator);
+    }
+
+    // Creates a game on a board of the given size that draws its pieces from the given generator.
+    public GameEngine(int boardWidth, int boardHeight, PieceGenerator generator) {
+        this.gameBoard = new GameBoard(boardWidth, boardHeight);
+        this.movement = new Movement(gameBoard);
+        this.pieceQueue = new PieceQueue(generator, PREVIEW_SIZE);
+        reset();
+    }
+
+    /*
+     * Applies a single player action to the active piece.
+     * Returns true if the game state changed as a result.
+     */
+    public boolean step(GameInput input) {
+        if (gameOver || currentPiece == null) {
+            return false;
+        }
+        return switch (input) {
+            case LEFT -> movement.moveLeft(currentPiece);
+            case RIGHT -> movement.moveRight(currentPiece);
+            case DOWN -> dropOrLock();
+            case ROTATE -> movement.rotate(currentPiece);
+            case HARD_DROP -> hardDropAndLock();
+        };
+    }
+
+    /*
+     * Advances the game by one tick. Every gravityInterval ticks the active piece moves down
+     * one row, or locks in place if it cannot. Returns true if the game state changed.
+     */
+    public boolean tick() {
+        if (gameOver || currentPiece == null) {
+            return false;
+        }
+        if (++gravityCounter < gravityInterval) {
+            return false;
+        }
+        gravityCounter = 0;
+        return dropOrLock();
+    }
+
+    /*
+     * Sets how many ticks pass between gravity steps. The default of 1 applies gravity on
+     * every tick; a fixed-rate loop uses a larger interval to keep the fall speed constant.
+     */
+    public void setGravityInterval(int ticks) {
+        if (ticks < 1) {
+            throw new IllegalArgumentException("Gravity interval must be at least 1 tick: " + ticks);
+        }
+        this.gravityInterval = ticks;
+    }
+
+    // Resets the game state and restarts the piece sequence from a seed.
+    public void reset(long seed) {
+        pieceQueue.reset(seed);
+        reset();
+    }
+
+    // Resets the game state to start a new game, continuing the piece sequence.
+    public void reset() {
+        gameBoard.clearBoard();
+        currentPiece = null;
+        nextPiece = null;
+        score = 0;
+        linesCleared = 0;
+        lastClear = LineClearResult.NONE;
+        lastLocked = null;
+        piecesPlaced = 0;
+        gameOver = false;
+        gravityCounter = 0;
+        generation++;
+        spawnNewPiece();
+    }
+
+    // Returns the game board being played on.
+    public GameBoard getGameBoard() {
+        return gameBoard;
+    }
+
+    // Returns the movement rules bound to this game's board.
+    public Movement getMovement() {
+        return movement;
+    }
+
+    // Returns the piece currently controlled by the player.
+    public Piece getCurrentPiece() {
+        return currentPiece;
+    }
+
+    // Returns the next piece to be spawned.
+    public Piece getNextPiece() {
+        return nextPiece;
+    }
+
+    /*
+     * Returns an upcoming piece type: 0 is nextPiece, 1 the piece after it, and so on
+     * up to getPreviewSize() - 1.
+     */
+    public PieceType getPreviewType(int index) {
+        return index == 0 ? nextPiece.getType() : pieceQueue.peek(index - 1);
+    }
+
+    // Returns the number of upcoming pieces visible through getPreviewType.
+    public int getPreviewSize() {
+        return pieceQueue.size() + 1;
+    }
+
+    /*
+     * Returns the row the active piece would land on if hard dropped (the ghost piece).
+     * The value is cached and only recomputed after the piece moves sideways, rotates,
+     * is replaced, or the board changes; falling does not change where it lands.
+     */
+    public int getGhostY() {
+        if (currentPiece == null) {
+            return 0;
+        }
+        long boardVersion = gameBoard.getVersion();
+        if (currentPiece != ghostPiece || currentPiece.getX() != ghostX
+                || currentPiece.getRotation() != ghostRotation || boardVersion != ghostBoardVersion) {
+            ghostPiece = currentPiece;
+            ghostX = currentPiece.getX();
+            ghostRotation = currentPiece.getRotation();
+            ghostBoardVersion = boardVersion;
+            ghostY = movement.findLandingY(currentPiece.getOrientation(), ghostX, currentPiece.getY());
+        }
+        return ghostY;
+    }
+
+    // Returns the player's current score.
+    public int getScore() {
+        return score;
+    }
+
+    // Returns the rows cleared by the most recent lock (empty if it cleared none).
+    public LineClearResult getLastClear() {
+        return lastClear;
+    }
+
+    // Returns the most recently locked piece at the position it locked in, or null if none has locked.
+    public Piece getLastLocked() {
+        return lastLocked;
+    }
+
+    // Returns the total number of lines cleared this game.
+    public int getLinesCleared() {
+        return linesCleared;
+    }
+
+    // Returns the total number of pieces locked this game.
+    public int getPiecesPlaced() {
+        return piecesPlaced;
+    }
+
+    // Returns how many times the game has been reset, so observers can tell games apart.
+    public int getGeneration() {
+        return generation;
+    }
+
+    // Returns true once a new piece could not be spawned.
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    // Moves the current piece down, or locks it in place if it cannot move further.
+    private boolean dropOrLock() {
+        if (!movement.moveDown(currentPiece)) {
+            mergePieceToBoard();
+            clearFullLines();
+            spawnNewPiece();
+        }
+        return true;
+    }
+
+    // Drops the current piece to its landing row and locks it immediately.
+    private boolean hardDropAndLock() {
+        currentPiece.dropTo(getGhostY());
+        mergePieceToBoard();
+        clearFullLines();
+        spawnNewPiece();
+        return true;
+    }
+
+    // Spawns a new piece on the board and checks for game over conditions.
+    private void spawnNewPiece() {
+        if (nextPiece == null) {
+            nextPiece = createRandomPiece();
+        }
+
+        currentPiece = nextPiece;
+        nextPiece = createRandomPiece();
+
+        if (!movement.canMove(currentPiece, currentPiece.getX(), currentPiece.getY())) {
+            gameOver = true;
+        }
+    }
+
+    // Merges the current piece into the game board.
+    private void mergePieceToBoard() {
+        PieceOrientation orientation = currentPiece.getOrientation();
+        int xPos = currentPiece.getX();
+        int yPos = currentPiece.getY();
+        int pieceIndex = currentPiece.getType().ordinal() + 1;
+
+        for (int i = 0; i < orientation.getCellCount(); i++) {
+            gameBoard.setCell(xPos + orientation.getCellX(i), yPos + orientation.getCellY(i), pieceIndex);
+        }
+        lastLocked = currentPiece; // Never moved again: spawnNewPiece replaces it
+        piecesPlaced++;
+    }
+
+    // Clears any full lines the locked piece completed and updates the score.
+    private void clearFullLines() {
+        int top = currentPiece.getY();
+        int bottom = top + currentPiece.getHeight() - 1;
+        LineClearResult result = gameBoard.clearFullRows(top, bottom);
+        lastClear = result;
+        score += result.getCount() * LINE_CLEAR_SCORE;
+        linesCleared += result.getCount();
+    }
+
+    // Creates the next Tetris piece from the queue.
+    private Piece createRandomPiece() {
+        return new Piece(pieceQueue.poll(), gameBoard.getWidth());
+    }
+}
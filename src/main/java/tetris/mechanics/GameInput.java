@@ -0,0 +1,19 @@
+/*
+ * GameInput.java
+ *
+ * This enum lists the player actions that GameEngine understands. Inputs are plain values
+ * so they can come from key bindings, a bot, or a replay without touching Swing.
+ *
+ * Author: Justin Morgan
+ * Last Updated Date: 12/03/2024
+ */
+
+package main.java.tetris.mechanics;
+
+public enum GameInput {
+    LEFT,       // Shift the active piece one column left
+    RIGHT,      // Shift the active piece one column right
+    DOWN,       // Soft drop one row, locking the piece if it cannot move
+    ROTATE,     // Rotate the active piece clockwise
+    HARD_DROP   // Drop the active piece to its landing row and lock it
+}
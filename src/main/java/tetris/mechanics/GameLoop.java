@@ -0,0 +1,151 @@
+/*
+ * GameLoop.java
+ *
+ * This class advances a GameEngine at a fixed timestep on its own scheduler thread, so game
+ * logic never waits on painting or modal dialogs on the Event Dispatch Thread, and each game
+ * in Multiplayer runs independently. Inputs from other threads are queued and applied at the
+ * start of the next frame. After any frame that changed the game, an immutable GameSnapshot
+ * is published for the UI to render.
+ *
+ * Author: Justin Morgan
+ * Last Updated Date: 12/09/2024
+ *
+ * Usage:
+ *   - Instantiate GameLoop with an engine and a snapshot listener, then call start().
+ *   - Call submit(input) from any thread to queue a player action.
+ *   - Call execute(command) to run other engine operations (such as reset) on the loop thread.
+ *   - Call shutdown() when the game is closed to release the thread.
+ *
+ * Dependencies:
+ *   - GameEngine for the game rules
+ *   - GameSnapshot for publishing state to the UI
+ */
+
+package main.java.tetris.mechanics;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+public class GameLoop {
+
+    public static final int TICKS_PER_SECOND = 60;          // Fixed logic rate
+    public static final long TICK_NANOS = 1_000_000_000L / TICKS_PER_SECOND;
+    public static final int MAX_CATCH_UP_TICKS = 5;         // Ticks run at most per frame after a stall
+
+    private final GameEngine engine;
+    private final Consumer<GameSnapshot> listener;
+    private final Queue<BooleanSupplier> commands = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService scheduler;
+
+    private volatile GameSnapshot snapshot;     // Latest published state
+    private ScheduledFuture<?> frameTask;       // Null while the loop is stopped
+    private long nextTickNanos;                 // When the next tick is due (loop thread only)
+    private long tick;                          // Ticks run so far (loop thread only)
+    private volatile long droppedTicks;         // Ticks skipped because the loop fell too far behind
+
+    public GameLoop(GameEngine engine, Consumer<GameSnapshot> listener) {
+        this.engine = engine;
+        this.listener = listener;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "tetris-game-loop");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.snapshot = GameSnapshot.capture(engine, null, 0);
+    }
+
+    // Starts ticking the engine at the fixed rate. Does nothing if already running.
+    public synchronized void start() {
+        if (frameTask != null || scheduler.isShutdown()) {
+            return;
+        }
+        nextTickNanos = System.nanoTime() + TICK_NANOS;
+        frameTask = scheduler.scheduleAtFixedRate(this::runFrame, TICK_NANOS, TICK_NANOS, TimeUnit.NANOSECONDS);
+    }
+
+    // Pauses the loop; queued inputs are kept until it starts again.
+    public synchronized void stop() {
+        if (frameTask != null) {
+            frameTask.cancel(false);
+            frameTask = null;
+        }
+    }
+
+    // Stops the loop for good and releases its thread.
+    public synchronized void shutdown() {
+        stop();
+        scheduler.shutdownNow();
+    }
+
+    // Returns true once shutdown() has been called.
+    public boolean isShutdown() {
+        return scheduler.isShutdown();
+    }
+
+    // Queues a player action to be applied on the loop thread.
+    public void submit(GameInput input) {
+        commands.add(() -> engine.step(input));
+    }
+
+    // Queues an arbitrary engine operation to run on the loop thread before the next tick.
+    public void execute(Runnable command) {
+        commands.add(() -> {
+            command.run();
+            return true;
+        });
+    }
+
+    // Retrieves the most recently published snapshot.
+    public GameSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    // Retrieves the number of ticks skipped because the loop fell too far behind.
+    public long getDroppedTicks() {
+        return droppedTicks;
+    }
+
+    /*
+     * Runs one scheduler frame: applies queued commands, then runs every tick that has come
+     * due since the last frame, up to MAX_CATCH_UP_TICKS. If the loop is further behind than
+     * that (for example after the machine was suspended), the backlog is dropped rather than
+     * fast-forwarding the game.
+     */
+    private void runFrame() {
+        try {
+            boolean changed = false;
+            BooleanSupplier command;
+            while ((command = commands.poll()) != null) {
+                changed |= command.getAsBoolean();
+            }
+
+            long now = System.nanoTime();
+            int ticksRun = 0;
+            while (now - nextTickNanos >= 0 && ticksRun < MAX_CATCH_UP_TICKS) {
+                changed |= engine.tick();
+                tick++;
+                ticksRun++;
+                nextTickNanos += TICK_NANOS;
+            }
+            if (now - nextTickNanos >= 0) {
+                droppedTicks += (now - nextTickNanos) / TICK_NANOS + 1;
+                nextTickNanos = now + TICK_NANOS;
+            }
+
+            if (changed) {
+                GameSnapshot published = GameSnapshot.capture(engine, snapshot, tick);
+                snapshot = published;
+                listener.accept(published);
+            }
+        } catch (RuntimeException e) {
+            // An exception would silently cancel the scheduled task, so report it and keep going
+            e.printStackTrace();
+        }
+    }
+}
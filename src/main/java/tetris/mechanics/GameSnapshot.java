@@ -0,0 +1,282 @@
+/*
+ * GameSnapshot.java
+ *
+ * This class is an immutable picture of a game at the end of a logic tick: the locked cells,
+ * the active piece and its ghost, the preview queue, and the score. The game loop publishes snapshots so the
+ * UI can paint on the Event Dispatch Thread while the engine keeps running on its own thread.
+ * Each snapshot also records when it was captured, where the last piece locked and the rows its
+ * lock cleared, so a renderer can interpolate between snapshots, animate line clears in its own
+ * time, and repaint only the cells a lock changed.
+ *
+ * Author: Justin Morgan
+ * Last Updated Date: 12/09/2024
+ *
+ * Usage:
+ *   - Create with GameSnapshot.capture(engine, previous, tick) on the thread that owns the engine.
+ *   - Read freely from any thread; a snapshot never changes after it is created.
+ *   - If followsByOneLock(older) is true, only the cells inside getChangedLeft/Right/Top/Bottom
+ *     differ from the older snapshot.
+ *
+ * Dependencies:
+ *   - GameEngine for the state being captured
+ *   - PieceOrientation and PieceType for the active and next pieces
+ */
+
+package main.java.tetris.mechanics;
+
+import main.java.tetris.model.GameBoard;
+import main.java.tetris.model.LineClearResult;
+import main.java.tetris.model.Piece;
+import main.java.tetris.model.PieceOrientation;
+import main.java.tetris.model.PieceType;
+
+public final class GameSnapshot {
+
+    private final int boardWidth;
+    private final int boardHeight;
+    private final long boardVersion;
+    private final byte[] cells;              // Row-major piece-type plane, never modified
+    private final PieceType pieceType;       // Null when no piece is active
+    private final PieceOrientation orientation;
+    private final int pieceX;
+    private final int pieceY;
+    private final int ghostY;
+    private final PieceType nextType;
+    private final PieceType[] previewTypes;  // Upcoming pieces, starting with nextType
+    private final int score;
+    private final int piecesPlaced;
+    private final int generation;            // Engine resets before this snapshot, to tell games apart
+    private final int linesCleared;
+    private final LineClearResult lastClear; // Rows cleared by the most recent lock
+    private final PieceType lockedType;      // Most recently locked piece, or null if none
+    private final PieceOrientation lockedOrientation;
+    private final int lockedX;
+    private final int lockedY;
+    private final int stackTop;              // Highest filled row, or boardHeight if the board is empty
+    private final boolean gameOver;
+    private final long tick;
+    private final long captureNanos;         // System.nanoTime() when the snapshot was taken
+
+    private GameSnapshot(GameBoard board, byte[] cells, int stackTop, Piece piece, int ghostY, Piece next,
+                         PieceType[] previewTypes, int score, int piecesPlaced, int generation, int linesCleared,
+                         LineClearResult lastClear, Piece lastLocked, boolean gameOver, long tick) {
+        this.boardWidth = board.getWidth();
+        this.boardHeight = board.getHeight();
+        this.boardVersion = board.getVersion();
+        this.cells = cells;
+        this.pieceType = piece == null ? null : piece.getType();
+        this.orientation = piece == null ? null : piece.getOrientation();
+        this.pieceX = piece == null ? 0 : piece.getX();
+        this.pieceY = piece == null ? 0 : piece.getY();
+        this.ghostY = ghostY;
+        this.nextType = next == null ? null : next.getType();
+        this.previewTypes = previewTypes;
+        this.score = score;
+        this.piecesPlaced = piecesPlaced;
+        this.generation = generation;
+        this.linesCleared = linesCleared;
+        this.lastClear = lastClear;
+        this.lockedType = lastLocked == null ? null : lastLocked.getType();
+        this.lockedOrientation = lastLocked == null ? null : lastLocked.getOrientation();
+        this.lockedX = lastLocked == null ? 0 : lastLocked.getX();
+        this.lockedY = lastLocked == null ? 0 : lastLocked.getY();
+        this.stackTop = stackTop;
+        this.gameOver = gameOver;
+        this.tick = tick;
+        this.captureNanos = System.nanoTime();
+    }
+
+    /*
+     * Captures the engine's current state. The board's cells (and the stack top) are only copied
+     * when the board changed since the previous snapshot; otherwise the previous (immutable) copy
+     * is shared.
+     */
+    public static GameSnapshot capture(GameEngine engine, GameSnapshot previous, long tick) {
+        GameBoard board = engine.getGameBoard();
+        boolean unchanged = previous != null && previous.boardVersion == board.getVersion()
+                && previous.boardWidth == board.getWidth() && previous.boardHeight == board.getHeight();
+        byte[] cells = unchanged ? previous.cells : board.copyCells();
+        int stackTop = unchanged ? previous.stackTop : findStackTop(board);
+        PieceType[] previewTypes = new PieceType[engine.getNextPiece() == null ? 0 : engine.getPreviewSize()];
+        for (int i = 0; i < previewTypes.length; i++) {
+            previewTypes[i] = engine.getPreviewType(i);
+        }
+        return new GameSnapshot(board, cells, stackTop, engine.getCurrentPiece(), engine.getGhostY(),
+                engine.getNextPiece(), previewTypes, engine.getScore(), engine.getPiecesPlaced(),
+                engine.getGeneration(), engine.getLinesCleared(), engine.getLastClear(), engine.getLastLocked(), engine.isGameOver(), tick);
+    }
+
+    // Finds the highest filled row from the board's column heights (boardHeight if it is empty).
+    private static int findStackTop(GameBoard board) {
+        int highest = 0;
+        for (int x = 0; x < board.getWidth(); x++) {
+            highest = Math.max(highest, board.getColumnHeight(x));
+        }
+        return board.getHeight() - highest;
+    }
+
+    // Retrieves the width of the board in columns.
+    public int getBoardWidth() {
+        return boardWidth;
+    }
+
+    // Retrieves the height of the board in rows.
+    public int getBoardHeight() {
+        return boardHeight;
+    }
+
+    // Retrieves the value of a locked cell (0 for empty, otherwise PieceType ordinal + 1).
+    public int getCell(int x, int y) {
+        return cells[y * boardWidth + x];
+    }
+
+    // Returns true if the locked cells are the same as in the other snapshot.
+    public boolean sameBoardAs(GameSnapshot other) {
+        return other != null && other.cells == cells;
+    }
+
+    // Retrieves the type of the active piece, or null if there is none.
+    public PieceType getPieceType() {
+        return pieceType;
+    }
+
+    // Retrieves the orientation of the active piece, or null if there is none.
+    public PieceOrientation getOrientation() {
+        return orientation;
+    }
+
+    // Retrieves the X position of the active piece.
+    public int getPieceX() {
+        return pieceX;
+    }
+
+    // Retrieves the Y position of the active piece.
+    public int getPieceY() {
+        return pieceY;
+    }
+
+    // Retrieves the row the active piece would land on if hard dropped.
+    public int getGhostY() {
+        return ghostY;
+    }
+
+    // Retrieves the type of the next piece, or null if there is none.
+    public PieceType getNextType() {
+        return nextType;
+    }
+
+    // Retrieves an upcoming piece type: 0 is the next piece, 1 the piece after it, and so on.
+    public PieceType getPreviewType(int index) {
+        return previewTypes[index];
+    }
+
+    // Retrieves the number of upcoming pieces visible through getPreviewType.
+    public int getPreviewSize() {
+        return previewTypes.length;
+    }
+
+    // Retrieves the number of pieces locked so far this game.
+    public int getPiecesPlaced() {
+        return piecesPlaced;
+    }
+
+    // Retrieves how many times the engine had been reset, which identifies the game.
+    public int getGeneration() {
+        return generation;
+    }
+
+    // Retrieves the number of lines cleared so far this game.
+    public int getLinesCleared() {
+        return linesCleared;
+    }
+
+    // Retrieves the rows cleared by the most recent lock, in board coordinates from before the clear.
+    public LineClearResult getLastClear() {
+        return lastClear;
+    }
+
+    // Retrieves the type of the most recently locked piece, or null if none has locked.
+    public PieceType getLockedType() {
+        return lockedType;
+    }
+
+    // Retrieves the orientation the most recently locked piece locked in, or null if none has locked.
+    public PieceOrientation getLockedOrientation() {
+        return lockedOrientation;
+    }
+
+    // Retrieves the X position the most recently locked piece locked at.
+    public int getLockedX() {
+        return lockedX;
+    }
+
+    // Retrieves the Y position the most recently locked piece locked at (before any clear).
+    public int getLockedY() {
+        return lockedY;
+    }
+
+    /*
+     * Returns true if this snapshot's board is the older snapshot's board plus exactly one locked
+     * piece (and the rows it cleared), so the changed cells are known without comparing them.
+     * Both snapshots must come from the same game, or a reset could pass for a single lock.
+     */
+    public boolean followsByOneLock(GameSnapshot older) {
+        return older != null && lockedOrientation != null && older.generation == generation
+                && older.boardWidth == boardWidth && older.boardHeight == boardHeight
+                && piecesPlaced == older.piecesPlaced + 1;
+    }
+
+    /*
+     * Retrieves the highest row changed by the last lock. Without a clear that is the top of the
+     * locked piece; a clear shifts every row from the old stack top (at most the cleared count
+     * above the new one) down to the lowest cleared row.
+     */
+    public int getChangedTop() {
+        if (lastClear.getCount() > 0) {
+            return Math.max(0, Math.min(lockedY, stackTop - lastClear.getCount()));
+        }
+        return Math.max(0, lockedY);
+    }
+
+    // Retrieves the lowest row changed by the last lock (the piece may reach below the cleared rows).
+    public int getChangedBottom() {
+        int pieceBottom = Math.min(boardHeight - 1, lockedY + lockedOrientation.getHeight() - 1);
+        if (lastClear.getCount() > 0) {
+            return Math.max(pieceBottom, lastClear.getClearedRow(0));
+        }
+        return pieceBottom;
+    }
+
+    // Retrieves the leftmost column changed by the last lock (every column after a clear).
+    public int getChangedLeft() {
+        return lastClear.getCount() > 0 ? 0 : Math.max(0, lockedX);
+    }
+
+    // Retrieves the rightmost column changed by the last lock (every column after a clear).
+    public int getChangedRight() {
+        if (lastClear.getCount() > 0) {
+            return boardWidth - 1;
+        }
+        return Math.min(boardWidth - 1, lockedX + lockedOrientation.getWidth() - 1);
+    }
+
+    // Retrieves the System.nanoTime() value at which the snapshot was captured.
+    public long getCaptureNanos() {
+        return captureNanos;
+    }
+
+    // Retrieves the score at the time of the snapshot.
+    public int getScore() {
+        return score;
+    }
+
+    // Returns true if the game had ended at the time of the snapshot.
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    // Retrieves the logic tick this snapshot was taken after.
+    public long getTick() {
+        return tick;
+    }
+}
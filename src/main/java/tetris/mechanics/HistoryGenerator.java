@@ -0,0 +1,64 @@
+/*
+ * HistoryGenerator.java
+ *
+ * This class picks pieces at random but rerolls a few times when the candidate is among the
+ * most recent spawns, in the style of arcade history randomizers. Repeats become rare without
+ * the fixed period of a bag. The history is a small ring buffer, so no allocation happens per piece.
+ *
+ * Author: Justin Morgan
+ * Last Updated Date: 12/09/2024
+ *
+ * Dependencies:
+ *   - PieceGenerator for the strategy interface
+ */
+
+package main.java.tetris.mechanics;
+
+import main.java.tetris.model.PieceType;
+
+import java.util.SplittableRandom;
+
+public final class HistoryGenerator implements PieceGenerator {
+
+    private static final int HISTORY_SIZE = 4;  // Number of recent pieces to avoid
+    private static final int MAX_REROLLS = 4;   // Attempts before accepting a repeat
+
+    private final PieceType[] history = new PieceType[HISTORY_SIZE];
+    private SplittableRandom random;
+    private int head;   // Ring buffer slot to overwrite next
+
+    public HistoryGenerator(long seed) {
+        reset(seed);
+    }
+
+    @Override
+    public PieceType next() {
+        PieceType candidate = PieceType.fromIndex(random.nextInt(PieceType.count()));
+        for (int roll = 0; roll < MAX_REROLLS && inHistory(candidate); roll++) {
+            candidate = PieceType.fromIndex(random.nextInt(PieceType.count()));
+        }
+        history[head] = candidate;
+        head = (head + 1) % HISTORY_SIZE;
+        return candidate;
+    }
+
+    @Override
+    public void reset(long seed) {
+        random = new SplittableRandom(seed);
+        // Seed the history with S and Z so a game rarely opens on either of them
+        for (int i = 0; i < HISTORY_SIZE; i++) {
+            history[i] = i % 2 == 0 ? PieceType.S : PieceType.Z;
+        }
+        head = 0;
+    }
+
+    // Returns true if the piece is one of the recent spawns.
+    private boolean inHistory(PieceType type) {
+        for (PieceType recent : history) {
+            if (recent == type) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -10,8 +10,7 @@ package main.java.tetris.mechanics;
 
 public class MechanicsConstants {
 
-    // Piece movement boundary constraints
-    public static final int BOARD_WIDTH = 10;
-    public static final int BOARD_HEIGHT = 20;
+    // Number of upcoming pieces kept in the preview queue
+    public static final int PREVIEW_SIZE = 5;
 
 }
@@ -11,9 +11,11 @@
  * Usage:
  *   - Instantiate Movement with a GameBoard object to manage piece movements.
  *   - Use methods like moveLeft, moveRight, moveDown, and rotate to control the pieces.
+ *   - Use findLandingY to find where a hard drop would land.
  *
  * Dependencies:
- *   - GameBoard for board state and collision checking
+ *   - GameBoard for board state and row occupancy masks
+ *   - PieceOrientation for precomputed per-row piece masks
  *   - Piece for handling piece shape, position, and rotation
  */
 
@@ -21,8 +23,7 @@ package main.java.tetris.mechanics;
 
 import main.java.tetris.model.Piece;
 import main.java.tetris.model.GameBoard;
-
-import static main.java.tetris.mechanics.MechanicsConstants.*;
+import main.java.tetris.model.PieceOrientation;
 
 /*
  * Movement class handles the movement and rotation of Tetris pieces.
@@ -39,26 +40,38 @@ public class Movement {
 
     // Checks if a piece can move to a specified position on the board.
     public boolean canMove(Piece piece, int newX, int newY) {
+        return canPlace(piece.getOrientation(), newX, newY);
+    }
 
-        // Get the shape matrix of the piece
-        int[][] shape = piece.getShape();
-        for (int i = 0; i < shape.length; i++) {
-            for (int j = 0; j < shape[0].length; j++) {
-                // Check only non-empty cells in the piece
-                if (shape[i][j] != 0) {
-                    int x = newX + j;   // Calculate the absolute X position on the board
-                    int y = newY + i;   // Calculate the absolute Y position on the board
-
-                    // Check if the position is out of bounds
-                    if (x < 0 || x >= BOARD_WIDTH || y < 0 || y >= BOARD_HEIGHT) {
-                        return false; // Invalid move: out of bounds
-                    }
-
-                    // Check if the position overlaps an existing cell on the board
-                    if (gameBoard.getCell(x, y) != 0) {
-                        return false; // Invalid move: collision detected
-                    }
-                }
+    /*
+     * Checks if an orientation fits at a position using row masks.
+     * Orientation bounding boxes are tight, so walls and floor reduce to four compares on
+     * the box edges; each shape row's mask is then shifted to the column and ANDed against
+     * the board's occupancy word, spilling into the next word when a piece straddles two.
+     */
+    public boolean canPlace(PieceOrientation orientation, int newX, int newY) {
+        int height = orientation.getHeight();
+
+        // Check if the position is out of bounds
+        if (newX < 0 || newY < 0
+                || newX + orientation.getWidth() > gameBoard.getWidth()
+                || newY + height > gameBoard.getHeight()) {
+            return false; // Invalid move: out of bounds
+        }
+
+        int word = newX / GameBoard.WORD_BITS;
+        int shift = newX % GameBoard.WORD_BITS;
+        boolean straddles = shift + orientation.getWidth() > GameBoard.WORD_BITS;
+        for (int i = 0; i < height; i++) {
+            long mask = orientation.getRowMask(i);
+
+            // Check if the row overlaps existing cells on the board
+            if ((gameBoard.getRowWord(newY + i, word) & (mask << shift)) != 0) {
+                return false; // Invalid move: collision detected
+            }
+            if (straddles && (gameBoard.getRowWord(newY + i, word + 1)
+                    & (mask >>> (GameBoard.WORD_BITS - shift))) != 0) {
+                return false; // Invalid move: collision detected in the next word
             }
         }
         return true; // Movement is valid
@@ -95,6 +108,32 @@ public class Movement {
         return false; // Move not allowed
     }
 
+    /*
+     * Computes the row an orientation would come to rest on if dropped straight down from
+     * (x, y), which must be a valid position. When every column of the piece is above that
+     * column's highest filled cell, the landing row follows from the board's column heights
+     * with a few subtractions. If the piece is tucked under an overhang, it falls back to
+     * stepping down one row at a time.
+     */
+    public int findLandingY(PieceOrientation orientation, int x, int y) {
+        int boardHeight = gameBoard.getHeight();
+        int landingY = Integer.MAX_VALUE;
+        for (int j = 0; j < orientation.getWidth(); j++) {
+            int surface = boardHeight - gameBoard.getColumnHeight(x + j); // Highest filled row, or floor
+            int bottom = orientation.getColumnBottom(j);
+            if (y + bottom >= surface) {
+                // Below the column top: cells above the floor may be reached through a gap
+                int stepY = y;
+                while (canPlace(orientation, x, stepY + 1)) {
+                    stepY++;
+                }
+                return stepY;
+            }
+            landingY = Math.min(landingY, surface - 1 - bottom);
+        }
+        return landingY;
+    }
+
     /*
      * Rotates the piece clockwise if possible.
      * If the rotation is invalid (e.g., overlaps other pieces or boundaries),
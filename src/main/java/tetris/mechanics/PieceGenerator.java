@@ -0,0 +1,48 @@
+/*
+ * PieceGenerator.java
+ *
+ * This interface defines the strategy used to pick the sequence of Tetris pieces.
+ * Generators draw from a seedable SplittableRandom, so the same seed always produces the
+ * same sequence, and independent games can split their own streams from one parent seed.
+ * Implementations do not allocate per piece.
+ *
+ * Author: Justin Morgan
+ * Last Updated Date: 12/09/2024
+ *
+ * Usage:
+ *   - Create a generator with PieceGenerator.create(mode, seed).
+ *   - Call next() for each piece, or let a PieceQueue fill its preview from it.
+ *   - Call reset(seed) to restart a reproducible sequence.
+ *
+ * Dependencies:
+ *   - PieceType for the pieces produced
+ */
+
+package main.java.tetris.mechanics;
+
+import main.java.tetris.model.PieceType;
+
+public interface PieceGenerator {
+
+    // The randomizer styles available through create()
+    enum Mode {
+        UNIFORM,    // Each piece picked independently with equal odds
+        SEVEN_BAG,  // Every run of seven pieces is a shuffled set of all seven types
+        HISTORY     // Rerolls pieces that appeared among the last few spawns
+    }
+
+    // Returns the next piece type in the sequence.
+    PieceType next();
+
+    // Restarts the sequence from the given seed.
+    void reset(long seed);
+
+    // Creates a generator of the given mode seeded with the given value.
+    static PieceGenerator create(Mode mode, long seed) {
+        return switch (mode) {
+            case UNIFORM -> new UniformGenerator(seed);
+            case SEVEN_BAG -> new SevenBagGenerator(seed);
+            case HISTORY -> new HistoryGenerator(seed);
+        };
+    }
+}
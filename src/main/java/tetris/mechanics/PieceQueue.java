@@ -0,0 +1,72 @@
+/*
+ * PieceQueue.java
+ *
+ * This class holds the upcoming pieces in a preallocated ring buffer and keeps it topped up
+ * from a PieceGenerator. It backs the next-piece preview and gives AI lookahead a fixed-size
+ * window into the sequence without allocating.
+ *
+ * Author: Justin Morgan
+ * Last Updated Date: 12/09/2024
+ *
+ * Usage:
+ *   - Instantiate PieceQueue with a generator and the number of preview slots.
+ *   - Call poll() to take the next piece; peek(i) to look i pieces ahead.
+ *
+ * Dependencies:
+ *   - PieceGenerator for producing new pieces
+ */
+
+package main.java.tetris.mechanics;
+
+import main.java.tetris.model.PieceType;
+
+public class PieceQueue {
+
+    private final PieceGenerator generator;
+    private final PieceType[] ring;
+    private int head;   // Slot holding the next piece to be polled
+
+    public PieceQueue(PieceGenerator generator, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Preview capacity must be at least 1: " + capacity);
+        }
+        this.generator = generator;
+        this.ring = new PieceType[capacity];
+        refill();
+    }
+
+    // Takes the next piece and replaces it with a fresh one at the back of the queue.
+    public PieceType poll() {
+        PieceType type = ring[head];
+        ring[head] = generator.next();
+        head = (head + 1) % ring.length;
+        return type;
+    }
+
+    // Looks at an upcoming piece without removing it (0 is the next piece to be polled).
+    public PieceType peek(int index) {
+        if (index < 0 || index >= ring.length) {
+            throw new IndexOutOfBoundsException("Preview index " + index + " outside 0.." + (ring.length - 1));
+        }
+        return ring[(head + index) % ring.length];
+    }
+
+    // Retrieves the number of pieces visible in the preview.
+    public int size() {
+        return ring.length;
+    }
+
+    // Restarts the generator from a seed and refills the preview.
+    public void reset(long seed) {
+        generator.reset(seed);
+        refill();
+    }
+
+    // Fills every slot of the ring from the generator.
+    private void refill() {
+        head = 0;
+        for (int i = 0; i < ring.length; i++) {
+            ring[i] = generator.next();
+        }
+    }
+}
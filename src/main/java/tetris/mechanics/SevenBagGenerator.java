@@ -0,0 +1,57 @@
+/*
+ * SevenBagGenerator.java
+ *
+ * This class deals pieces from a shuffled "bag" holding one of each type. When the bag is
+ * empty it is reshuffled in place, so droughts are bounded and no allocation happens per piece.
+ *
+ * Author: Justin Morgan
+ * Last Updated Date: 12/09/2024
+ *
+ * Dependencies:
+ *   - PieceGenerator for the strategy interface
+ */
+
+package main.java.tetris.mechanics;
+
+import main.java.tetris.model.PieceType;
+
+import java.util.SplittableRandom;
+
+public final class SevenBagGenerator implements PieceGenerator {
+
+    private final PieceType[] bag = new PieceType[PieceType.count()];
+    private SplittableRandom random;
+    private int position;   // Index of the next piece to deal from the bag
+
+    public SevenBagGenerator(long seed) {
+        reset(seed);
+    }
+
+    @Override
+    public PieceType next() {
+        if (position == bag.length) {
+            shuffle();
+        }
+        return bag[position++];
+    }
+
+    @Override
+    public void reset(long seed) {
+        random = new SplittableRandom(seed);
+        for (int i = 0; i < bag.length; i++) {
+            bag[i] = PieceType.fromIndex(i);
+        }
+        shuffle();
+    }
+
+    // Fisher-Yates shuffle of the bag, then deal from the start.
+    private void shuffle() {
+        for (int i = bag.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            PieceType swap = bag[i];
+            bag[i] = bag[j];
+            bag[j] = swap;
+        }
+        position = 0;
+    }
+}
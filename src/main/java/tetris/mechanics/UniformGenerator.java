@@ -0,0 +1,37 @@
+/*
+ * UniformGenerator.java
+ *
+ * This class picks each piece independently with equal odds, which matches the game's
+ * original randomizer but draws from a single seeded stream instead of a new Random per spawn.
+ *
+ * Author: Justin Morgan
+ * Last Updated Date: 12/09/2024
+ *
+ * Dependencies:
+ *   - PieceGenerator for the strategy interface
+ */
+
+package main.java.tetris.mechanics;
+
+import main.java.tetris.model.PieceType;
+
+import java.util.SplittableRandom;
+
+public final class UniformGenerator implements PieceGenerator {
+
+    private SplittableRandom random;
+
+    public UniformGenerator(long seed) {
+        reset(seed);
+    }
+
+    @Override
+    public PieceType next() {
+        return PieceType.fromIndex(random.nextInt(PieceType.count()));
+    }
+
+    @Override
+    public void reset(long seed) {
+        random = new SplittableRandom(seed);
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * BoardSnapshot.java
+ *
+ * This class is an immutable copy of a GameBoard, optionally together with the active piece.
+ * Snapshots copy the board's flat arrays once, so they are cheap enough to take for every
+ * node of a search, and they never alias the live board: search, rollback and replay code
+ * can branch from a snapshot and restore it later without deep copies.
+ *
+ * Author: Lauren Gregory
+ * Last Updated Date: 12/09/2024
+ *
+ * Usage:
+ *   - Take a snapshot with GameBoard.snapshot() or GameBoard.snapshot(activePiece).
+ *   - Roll a board back with GameBoard.restore(snapshot), or build a new one with toBoard().
+ *   - Recreate the active piece with createPiece().
+ *
+ * Dependencies:
+ *   - GameBoard for the state being captured
+ *   - Piece and PieceType for the optional active piece
+ */
+
+package main.java.tetris.model;
+
+public final class BoardSnapshot {
+
+    // Board state, copied from GameBoard and never modified afterwards
+    final int width;
+    final int height;
+    final long[] rowBits;
+    final byte[] cells;
+    final int[] columnHeights;
+    final int[] columnHoles;
+    final int[] rowFill;
+    final int holeCount;
+    final long hash;
+
+    // Active piece, or null type when the snapshot holds only the board
+    private final PieceType pieceType;
+    private final int pieceRotation;
+    private final int pieceX;
+    private final int pieceY;
+
+    BoardSnapshot(int width, int height, long[] rowBits, byte[] cells, int[] columnHeights,
+                  int[] columnHoles, int[] rowFill, int holeCount, long hash, Piece piece) {
+        this.width = width;
+        this.height = height;
+        this.rowBits = rowBits;
+        this.cells = cells;
+        this.columnHeights = columnHeights;
+        this.columnHoles = columnHoles;
+        this.rowFill = rowFill;
+        this.holeCount = holeCount;
+        this.hash = hash;
+        this.pieceType = piece == null ? null : piece.getType();
+        this.pieceRotation = piece == null ? 0 : piece.getRotation();
+        this.pieceX = piece == null ? 0 : piece.getX();
+        this.pieceY = piece == null ? 0 : piece.getY();
+    }
+
+    // Creates a new, independent GameBoard holding this snapshot's cells.
+    public GameBoard toBoard() {
+        GameBoard board = new GameBoard(width, height);
+        board.restore(this);
+        return board;
+    }
+
+    // Creates a new Piece matching the snapshot's active piece, or null if it had none.
+    public Piece createPiece() {
+        return pieceType == null ? null : new Piece(pieceType, pieceRotation, pieceX, pieceY);
+    }
+
+    // Retrieves the width of the board in columns.
+    public int getWidth() {
+        return width;
+    }
+
+    // Retrieves the height of the board in rows.
+    public int getHeight() {
+        return height;
+    }
+
+    // Retrieves the value of a cell (0 for empty, otherwise PieceType ordinal + 1).
+    public int getCell(int x, int y) {
+        return cells[y * width + x];
+    }
+
+    // Retrieves the height of a column at the time of the snapshot.
+    public int getColumnHeight(int x) {
+        return columnHeights[x];
+    }
+
+    // Retrieves the total number of holes at the time of the snapshot.
+    public int getHoleCount() {
+        return holeCount;
+    }
+
+    // Retrieves the board's Zobrist hash, folding in the active piece if the snapshot has one.
+    public long getHash() {
+        return pieceType == null ? hash
+                : hash ^ Zobrist.pieceKey(pieceType, pieceRotation) ^ Zobrist.positionKey(pieceX, pieceY);
+    }
+
+    // Retrieves the type of the active piece, or null if the snapshot has none.
+    public PieceType getPieceType() {
+        return pieceType;
+    }
+
+    // Retrieves the rotation index of the active piece.
+    public int getPieceRotation() {
+        return pieceRotation;
+    }
+
+    // Retrieves the X position of the active piece.
+    public int getPieceX() {
+        return pieceX;
+    }
+
+    // Retrieves the Y position of the active piece.
+    public int getPieceY() {
+        return pieceY;
+    }
+}
@@ -6,29 +6,81 @@
  * The game board keeps track of placed pieces and supports operations like clearing the board
  * and updating individual cells.
  *
+ * The board is stored as a bitboard: every row keeps an occupancy bitmask split into
+ * 64-bit words (bit x of a row is column x), alongside a compact byte plane that records
+ * which piece type filled each cell so the UI can still color the stack. Collision checks
+ * can AND a piece's row masks against the board's row words, and full-row checks compare
+ * a row's fill count against the width.
+ *
  * Author: Lauren Greg
  * Last Updated Date: 11/24/2024
  *
  * Usage:
- *   - Instantiate GameBoard to create a new game grid.
+ *   - Instantiate GameBoard to create a new game grid, optionally with custom dimensions.
  *   - Use methods like setCell, getCell, and clearBoard to manage the grid state.
+ *   - Use isRowFull and getRowWord for mask-based line and collision checks.
+ *   - Use clearFullRows to remove completed lines in one compaction pass.
+ *   - Use snapshot, restore and copyFrom to branch and roll back board states without aliasing.
+ *   - Use getHash for a Zobrist hash of the occupied cells, maintained incrementally.
+ *   - Use getColumnHeight, getRowFill and getHoleCount to read the stack profile. These are
+ *     maintained incrementally by setCell and clearFullRows, so reading them never scans the grid.
  *
  * Dependencies:
- *   - ModelConstants for board dimensions
+ *   - ModelConstants for the default and minimum board dimensions
  */
 
 package main.java.tetris.model;
 
+import java.util.Arrays;
+
 import static main.java.tetris.model.ModelConstants.*;
 
-public class GameBoard {
+public final class GameBoard {
+
+    // Number of columns packed into each occupancy word
+    public static final int WORD_BITS = Long.SIZE;
+
+    private final int width;
+    private final int height;
+    private final int wordsPerRow;
+
+    // Occupancy bitmasks, row-major: words [y * wordsPerRow, (y + 1) * wordsPerRow) hold row y
+    private final long[] rowBits;
+
+    // Piece-type plane, row-major: 0 for empty, otherwise PieceType ordinal + 1
+    private final byte[] cells;
 
-    // 2D array representing the game board grid
-    private final int[][] grid;
+    // Stack profile, kept up to date on every mutation
+    private final int[] columnHeights;  // Rows from the floor to the highest filled cell, 0 if empty
+    private final int[] columnHoles;    // Empty cells below the highest filled cell, per column
+    private final int[] rowFill;        // Filled cells per row
+    private int holeCount;              // Sum of columnHoles
 
-    // Constructor
+    // Zobrist hash of the occupied cells, kept up to date on every mutation
+    private long hash;
+
+    // Incremented on every mutation so observers can tell when the board changed
+    private long version;
+
+    // Constructor: creates a board with the standard dimensions.
     public GameBoard() {
-        grid = new int[BOARD_WIDTH][BOARD_HEIGHT]; // Initialize grid with predefined dimensions
+        this(BOARD_WIDTH, BOARD_HEIGHT);
+    }
+
+    // Constructor: creates a board with the given number of columns and rows.
+    public GameBoard(int width, int height) {
+        if (width < MIN_BOARD_SIZE || height < MIN_BOARD_SIZE) {
+            throw new IllegalArgumentException("Board must be at least " + MIN_BOARD_SIZE + "x"
+                    + MIN_BOARD_SIZE + ": " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+        this.wordsPerRow = (width + WORD_BITS - 1) / WORD_BITS;
+        this.rowBits = new long[height * wordsPerRow];
+        this.cells = new byte[width * height];
+        this.columnHeights = new int[width];
+        this.columnHoles = new int[width];
+        this.rowFill = new int[height];
         clearBoard(); // Clear the grid
     }
 
@@ -37,25 +89,273 @@ public class GameBoard {
      * This method is used to reset the board at the start of a game or after a game over.
      */
     public void clearBoard() {
-        for (int x = 0; x < BOARD_WIDTH; x++) {
-            for (int y = 0; y < BOARD_HEIGHT; y++) {
-                grid[x][y] = 0; // Set each cell to empty
-            }
+        Arrays.fill(rowBits, 0L);
+        Arrays.fill(cells, (byte) 0);
+        Arrays.fill(columnHeights, 0);
+        Arrays.fill(columnHoles, 0);
+        Arrays.fill(rowFill, 0);
+        holeCount = 0;
+        hash = 0L;
+        version++;
+    }
+
+    // Takes an immutable snapshot of the board alone.
+    public BoardSnapshot snapshot() {
+        return snapshot(null);
+    }
+
+    // Takes an immutable snapshot of the board together with the active piece (which may be null).
+    public BoardSnapshot snapshot(Piece activePiece) {
+        return new BoardSnapshot(width, height, rowBits.clone(), cells.clone(), columnHeights.clone(),
+                columnHoles.clone(), rowFill.clone(), holeCount, hash, activePiece);
+    }
+
+    /*
+     * Rolls the board back to a snapshot of a board with the same dimensions.
+     * The snapshot's arrays are copied into this board's storage, so nothing is allocated.
+     */
+    public void restore(BoardSnapshot snapshot) {
+        if (snapshot.width != width || snapshot.height != height) {
+            throw new IllegalArgumentException("Snapshot is " + snapshot.width + "x" + snapshot.height
+                    + " but board is " + width + "x" + height);
         }
+        System.arraycopy(snapshot.rowBits, 0, rowBits, 0, rowBits.length);
+        System.arraycopy(snapshot.cells, 0, cells, 0, cells.length);
+        System.arraycopy(snapshot.columnHeights, 0, columnHeights, 0, width);
+        System.arraycopy(snapshot.columnHoles, 0, columnHoles, 0, width);
+        System.arraycopy(snapshot.rowFill, 0, rowFill, 0, height);
+        holeCount = snapshot.holeCount;
+        hash = snapshot.hash;
+        version++;
     }
 
-    // Retrieves the entire grid representing the game board.
-    public int[][] getGrid() {
-        return grid;
+    // Copies another board of the same dimensions into this one without allocating.
+    public void copyFrom(GameBoard other) {
+        if (other.width != width || other.height != height) {
+            throw new IllegalArgumentException("Board is " + other.width + "x" + other.height
+                    + " but this board is " + width + "x" + height);
+        }
+        System.arraycopy(other.rowBits, 0, rowBits, 0, rowBits.length);
+        System.arraycopy(other.cells, 0, cells, 0, cells.length);
+        System.arraycopy(other.columnHeights, 0, columnHeights, 0, width);
+        System.arraycopy(other.columnHoles, 0, columnHoles, 0, width);
+        System.arraycopy(other.rowFill, 0, rowFill, 0, height);
+        holeCount = other.holeCount;
+        hash = other.hash;
+        version++;
     }
 
     // Sets the value of a specific cell in the grid.
     public void setCell(int x, int y, int value) {
-        grid[x][y] = value; // Update the specified cell
+        boolean wasFilled = cells[y * width + x] != 0;
+        cells[y * width + x] = (byte) value;
+        version++;
+        if (wasFilled == (value != 0)) {
+            return; // Only the piece type changed; occupancy and profile are unaffected
+        }
+
+        int index = y * wordsPerRow + (x / WORD_BITS);
+        long bit = 1L << (x % WORD_BITS);
+        hash ^= Zobrist.cellKey(y * width + x);
+        int top = height - columnHeights[x]; // Row of the highest filled cell, or height if empty
+        if (value != 0) {
+            rowBits[index] |= bit;
+            rowFill[y]++;
+            if (y < top) {
+                // New column top: every cell between it and the old top becomes a hole
+                columnHeights[x] = height - y;
+                addHoles(x, top - y - 1);
+            } else {
+                addHoles(x, -1); // Filled an existing hole
+            }
+        } else {
+            rowBits[index] &= ~bit;
+            rowFill[y]--;
+            if (y > top) {
+                addHoles(x, 1); // Opened a hole under the column top
+            } else {
+                rescanColumn(x); // Removed the column top; find the next one down
+            }
+        }
     }
 
     // Retrieves the value of a specific cell in the grid.
     public int getCell(int x, int y) {
-        return grid[x][y];
+        return cells[y * width + x];
+    }
+
+    // Returns true if every column of the given row is occupied.
+    public boolean isRowFull(int y) {
+        return rowFill[y] == width;
+    }
+
+    // Returns true if no column of the given row is occupied.
+    public boolean isRowEmpty(int y) {
+        return rowFill[y] == 0;
+    }
+
+    // Clears every full row on the board in a single compaction pass.
+    public LineClearResult clearFullRows() {
+        return clearFullRows(0, height - 1);
+    }
+
+    /*
+     * Clears the full rows between top and bottom (inclusive) and compacts the board once.
+     * Only the given rows are checked, which lets callers limit the scan to the rows a locked
+     * piece touched. Each surviving row above the lowest cleared row is copied exactly once,
+     * and the rows freed at the top are emptied.
+     */
+    public LineClearResult clearFullRows(int top, int bottom) {
+        int count = 0;
+        int[] found = null;
+        for (int y = bottom; y >= top; y--) {
+            if (isRowFull(y)) {
+                if (found == null) {
+                    found = new int[bottom - top + 1];
+                }
+                found[count++] = y;
+            }
+        }
+        if (count == 0) {
+            return LineClearResult.NONE;
+        }
+
+        // Every cell at or above the lowest cleared row moves or disappears, so rehash that band
+        hash ^= hashRows(0, found[0]);
+
+        // Walk up from the lowest cleared row, moving each surviving row to its new position
+        int next = 0;
+        int dst = found[0];
+        for (int src = found[0]; src >= 0; src--) {
+            if (next < count && found[next] == src) {
+                next++;
+                continue;
+            }
+            if (dst != src) {
+                System.arraycopy(rowBits, src * wordsPerRow, rowBits, dst * wordsPerRow, wordsPerRow);
+                System.arraycopy(cells, src * width, cells, dst * width, width);
+                rowFill[dst] = rowFill[src];
+            }
+            dst--;
+        }
+
+        // Empty the rows left behind at the top of the board
+        Arrays.fill(rowBits, 0, (dst + 1) * wordsPerRow, 0L);
+        Arrays.fill(cells, 0, (dst + 1) * width, (byte) 0);
+        Arrays.fill(rowFill, 0, dst + 1, 0);
+        hash ^= hashRows(0, found[0]);
+        version++;
+
+        /*
+         * Full rows hold no holes and every column is filled in each of them, so a column simply
+         * loses one row of height per cleared row. The exception is a column whose top cell was
+         * in the highest cleared row: its new top may sit further down, so it is rescanned.
+         */
+        int highestCleared = found[count - 1];
+        for (int x = 0; x < width; x++) {
+            if (height - columnHeights[x] == highestCleared) {
+                rescanColumn(x);
+            } else {
+                columnHeights[x] -= count;
+            }
+        }
+
+        return new LineClearResult(count == found.length ? found : Arrays.copyOf(found, count));
+    }
+
+    // Retrieves the height of a column: rows from the floor to its highest filled cell (0 if empty).
+    public int getColumnHeight(int x) {
+        return columnHeights[x];
+    }
+
+    // Retrieves the number of empty cells below the highest filled cell of a column.
+    public int getColumnHoles(int x) {
+        return columnHoles[x];
+    }
+
+    // Retrieves the number of filled cells in a row.
+    public int getRowFill(int y) {
+        return rowFill[y];
+    }
+
+    // Retrieves the total number of holes (empty cells covered by a filled cell in the same column).
+    public int getHoleCount() {
+        return holeCount;
+    }
+
+    // Retrieves the Zobrist hash of the occupied cells (piece types do not affect it).
+    public long getHash() {
+        return hash;
+    }
+
+    // XORs together the cell keys of every occupied cell in rows top to bottom (inclusive).
+    private long hashRows(int top, int bottom) {
+        long rowsHash = 0L;
+        for (int y = top; y <= bottom; y++) {
+            int base = y * wordsPerRow;
+            for (int w = 0; w < wordsPerRow; w++) {
+                long bits = rowBits[base + w];
+                while (bits != 0L) {
+                    int x = w * WORD_BITS + Long.numberOfTrailingZeros(bits);
+                    rowsHash ^= Zobrist.cellKey(y * width + x);
+                    bits &= bits - 1;
+                }
+            }
+        }
+        return rowsHash;
+    }
+
+    // Adjusts a column's hole count and the board total together.
+    private void addHoles(int x, int delta) {
+        columnHoles[x] += delta;
+        holeCount += delta;
+    }
+
+    // Recomputes one column's height and holes from the occupancy bits.
+    private void rescanColumn(int x) {
+        int word = x / WORD_BITS;
+        long bit = 1L << (x % WORD_BITS);
+        int top = 0;
+        while (top < height && (rowBits[top * wordsPerRow + word] & bit) == 0) {
+            top++;
+        }
+        int holes = 0;
+        for (int y = top + 1; y < height; y++) {
+            if ((rowBits[y * wordsPerRow + word] & bit) == 0) {
+                holes++;
+            }
+        }
+        columnHeights[x] = height - top;
+        addHoles(x, holes - columnHoles[x]);
+    }
+
+    // Retrieves one 64-column occupancy word of a row (bit i is column word * 64 + i).
+    public long getRowWord(int y, int word) {
+        return rowBits[y * wordsPerRow + word];
+    }
+
+    // Returns a row-major copy of the piece-type plane (index y * width + x).
+    public byte[] copyCells() {
+        return cells.clone();
+    }
+
+    // Retrieves the mutation counter; it changes whenever any cell changes.
+    public long getVersion() {
+        return version;
+    }
+
+    // Retrieves the width of the board in columns.
+    public int getWidth() {
+        return width;
+    }
+
+    // Retrieves the height of the board in rows.
+    public int getHeight() {
+        return height;
+    }
+
+    // Retrieves the number of occupancy words used per row.
+    public int getWordsPerRow() {
+        return wordsPerRow;
     }
 }
@@ -0,0 +1,38 @@
+/*
+ * LineClearResult.java
+ *
+ * This class reports the outcome of a line clear on the GameBoard: how many rows were
+ * removed and which rows they were, in board coordinates from before the clear.
+ *
+ * Author: Lauren Gregory
+ * Last Updated Date: 12/09/2024
+ *
+ * Usage:
+ *   - Returned by GameBoard.clearFullRows after each lock.
+ *   - Use getCount for scoring and getClearedRow for animations or dirty regions.
+ */
+
+package main.java.tetris.model;
+
+public final class LineClearResult {
+
+    // Shared result for the common case where nothing was cleared
+    public static final LineClearResult NONE = new LineClearResult(new int[0]);
+
+    private final int[] clearedRows;
+
+    // Constructor: takes ownership of the cleared row indices (ordered bottom to top).
+    LineClearResult(int[] clearedRows) {
+        this.clearedRows = clearedRows;
+    }
+
+    // Retrieves the number of rows that were cleared.
+    public int getCount() {
+        return clearedRows.length;
+    }
+
+    // Retrieves the index of a cleared row, as it was before the board compacted.
+    public int getClearedRow(int index) {
+        return clearedRows[index];
+    }
+}
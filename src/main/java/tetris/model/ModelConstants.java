@@ -12,6 +12,8 @@ package main.java.tetris.model;
 public class ModelConstants {
     public static final int BOARD_WIDTH = 10;   // Width of the game board (number of columns)
     public static final int BOARD_HEIGHT = 20;  // Height of the game board (number of rows)
+    public static final int MIN_BOARD_SIZE = 4; // Smallest width or height that fits every piece
+    public static final int ROTATION_COUNT = 4; // Number of orientations per piece (must be a power of two)
 
     // Tetromino shapes as 3D arrays
     public static final int[][][] SHAPES = {
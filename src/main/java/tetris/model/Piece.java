@@ -16,15 +16,17 @@ import static main.java.tetris.model.ModelConstants.*;
  *   - Instantiate Piece with a specific PieceType to create a new Tetromino.
  *   - Use movement methods (moveLeft, moveRight, moveDown) to control the piece's position.
  *   - Use rotation methods (rotate, rotateBack) to change the orientation of the piece.
+ *     Orientations come from the precomputed PieceOrientation table, so rotating never allocates.
  *
  * Dependencies:
  *   - ModelConstants for shared constants
  *   - PieceType for defining the type and color of the piece
+ *   - PieceOrientation for the precomputed rotation tables
  */
 public class Piece {
 
     private final PieceType type;
-    private int[][] shape;
+    private PieceOrientation orientation;
     private int x, y;
 
     /*
@@ -32,28 +34,50 @@ public class Piece {
      * Initializes the shape, starting position, and type of the piece.
      */
     private static final int STARTING_Y = 0;
-    private static final int COUNTER_ROTATION_STEPS = 3;
 
     public Piece(PieceType type) {
+        this(type, BOARD_WIDTH);
+    }
+
+    // Creates a new Piece with an explicit orientation and position (used to restore snapshots).
+    public Piece(PieceType type, int rotation, int x, int y) {
+        this.type = type;
+        this.orientation = PieceOrientation.get(type, rotation);
+        this.x = x;
+        this.y = y;
+    }
+
+    // Creates a new Piece centered at the top of a board with the given number of columns.
+    public Piece(PieceType type, int boardWidth) {
         this.type = type;
-        this.shape = SHAPES[type.ordinal()];
-        this.x = BOARD_WIDTH / 2 - shape[0].length / 2; // Center the piece horizontally
+        this.orientation = PieceOrientation.get(type, 0);
+        this.x = boardWidth / 2 - orientation.getWidth() / 2; // Center the piece horizontally
         this.y = STARTING_Y; // Start at the top of the board
     }
 
-    // Retrieves the shape matrix of the piece.
+    // Retrieves the shape matrix of the piece. The array is shared and must not be modified.
     public int[][] getShape() {
-        return shape;
+        return orientation.getShape();
+    }
+
+    // Retrieves the current precomputed orientation of the piece.
+    public PieceOrientation getOrientation() {
+        return orientation;
+    }
+
+    // Retrieves the rotation index of the piece (0 to 3, clockwise from spawn).
+    public int getRotation() {
+        return orientation.getRotation();
     }
 
     // Retrieves the width of the piece (number of columns in the shape matrix).
     public int getWidth() {
-        return shape[0].length;
+        return orientation.getWidth();
     }
 
     // Retrieves the height of the piece (number of rows in the shape matrix).
     public int getHeight() {
-        return shape.length;
+        return orientation.getHeight();
     }
 
     // Retrieves the X position of the piece on the game board.
@@ -81,6 +105,11 @@ public class Piece {
         y++;
     }
 
+    // Moves the piece straight down to the given row (used by hard drop).
+    public void dropTo(int newY) {
+        y = newY;
+    }
+
     // Moves the piece one column to the left on the game board.
     public void moveLeft() {
         x--;
@@ -93,21 +122,11 @@ public class Piece {
 
     // Rotates the piece 90 degrees clockwise.
     public void rotate() {
-        int rows = shape.length;
-        int cols = shape[0].length;
-        int[][] rotatedShape = new int[cols][rows];
-        for (int i = 0; i < rows; i++) {
-            for (int j = 0; j < cols; j++) {
-                rotatedShape[j][rows - 1 - i] = shape[i][j];
-            }
-        }
-        shape = rotatedShape;
+        orientation = PieceOrientation.get(type, orientation.getRotation() + 1);
     }
 
     // Rotates the piece back to its previous orientation (90 degrees counterclockwise).
     public void rotateBack() {
-        for (int i = 0; i < COUNTER_ROTATION_STEPS; i++) {
-            rotate();
-        }
+        orientation = PieceOrientation.get(type, orientation.getRotation() + ROTATION_COUNT - 1);
     }
 }
@@ -0,0 +1,166 @@
+/*
+ * PieceOrientation.java
+ *
+ * This class holds one precomputed rotation of a Tetromino shape. All four orientations
+ * of every entry in ModelConstants.SHAPES are built once when the class loads, so rotating
+ * a piece is an index change instead of allocating a new shape matrix.
+ *
+ * Author: Justin Morgan
+ * Last Updated Date: 12/09/2024
+ *
+ * Usage:
+ *   - Look up an orientation with PieceOrientation.get(type, rotation).
+ *   - Iterate the filled cells with getCellCount, getCellX and getCellY.
+ *   - Use getRowMask for mask-based collision checks against GameBoard row words.
+ *   - Use getColumnBottom with GameBoard column heights to compute drop distances directly.
+ *
+ * Dependencies:
+ *   - ModelConstants for the base shapes and rotation count
+ *   - PieceType for indexing the table
+ */
+
+package main.java.tetris.model;
+
+import java.util.Arrays;
+
+import static main.java.tetris.model.ModelConstants.*;
+
+public final class PieceOrientation {
+
+    // Every orientation of every piece type, indexed [type ordinal][rotation]
+    private static final PieceOrientation[][] TABLE = buildTable();
+
+    private final int rotation;
+    private final int canonicalRotation;
+    private final int[][] shape;
+    private final int[] cellX;
+    private final int[] cellY;
+    private final long[] rowMasks;
+    private final int[] columnBottoms;
+
+    private PieceOrientation(int rotation, int canonicalRotation, int[][] shape) {
+        this.rotation = rotation;
+        this.canonicalRotation = canonicalRotation;
+        this.shape = shape;
+
+        int count = 0;
+        for (int[] row : shape) {
+            for (int cell : row) {
+                if (cell != 0) {
+                    count++;
+                }
+            }
+        }
+        this.cellX = new int[count];
+        this.cellY = new int[count];
+        this.rowMasks = new long[shape.length];
+        this.columnBottoms = new int[shape[0].length];
+        int n = 0;
+        for (int i = 0; i < shape.length; i++) {
+            for (int j = 0; j < shape[0].length; j++) {
+                if (shape[i][j] != 0) {
+                    cellX[n] = j;
+                    cellY[n] = i;
+                    rowMasks[i] |= 1L << j;
+                    columnBottoms[j] = i; // Rows are visited top to bottom, so the last one wins
+                    n++;
+                }
+            }
+        }
+    }
+
+    // Retrieves the precomputed orientation of a piece type (rotation is taken modulo 4).
+    public static PieceOrientation get(PieceType type, int rotation) {
+        return TABLE[type.ordinal()][rotation & (ROTATION_COUNT - 1)];
+    }
+
+    /*
+     * Retrieves the shape matrix of this orientation ([row][column]).
+     * The array is shared by every piece in this orientation and must not be modified.
+     */
+    public int[][] getShape() {
+        return shape;
+    }
+
+    // Retrieves the rotation index of this orientation (0 to 3, clockwise).
+    public int getRotation() {
+        return rotation;
+    }
+
+    /*
+     * Retrieves the lowest rotation index with exactly the same shape matrix. Rotations share a
+     * canonical index when they cover the same cells at the same position (all four for O, and
+     * rotations 0/2 and 1/3 for I, S and Z), which lets placement search merge duplicates.
+     */
+    public int getCanonicalRotation() {
+        return canonicalRotation;
+    }
+
+    // Retrieves the width of the orientation (number of columns in the shape matrix).
+    public int getWidth() {
+        return shape[0].length;
+    }
+
+    // Retrieves the height of the orientation (number of rows in the shape matrix).
+    public int getHeight() {
+        return shape.length;
+    }
+
+    // Retrieves the number of filled cells in the orientation.
+    public int getCellCount() {
+        return cellX.length;
+    }
+
+    // Retrieves the column offset of the given filled cell.
+    public int getCellX(int index) {
+        return cellX[index];
+    }
+
+    // Retrieves the row offset of the given filled cell.
+    public int getCellY(int index) {
+        return cellY[index];
+    }
+
+    // Retrieves the occupancy mask of one shape row (bit j is column offset j).
+    public long getRowMask(int row) {
+        return rowMasks[row];
+    }
+
+    // Retrieves the row offset of the lowest filled cell in one shape column.
+    public int getColumnBottom(int column) {
+        return columnBottoms[column];
+    }
+
+    // Builds all orientations by rotating each base shape 90 degrees clockwise, three times.
+    private static PieceOrientation[][] buildTable() {
+        PieceOrientation[][] table = new PieceOrientation[SHAPES.length][ROTATION_COUNT];
+        for (int t = 0; t < SHAPES.length; t++) {
+            int[][][] shapes = new int[ROTATION_COUNT][][];
+            shapes[0] = SHAPES[t];
+            for (int r = 1; r < ROTATION_COUNT; r++) {
+                shapes[r] = rotateClockwise(shapes[r - 1]);
+            }
+            for (int r = 0; r < ROTATION_COUNT; r++) {
+                int canonical = 0;
+                while (!Arrays.deepEquals(shapes[canonical], shapes[r])) {
+                    canonical++;
+                }
+                table[t][r] = new PieceOrientation(r, canonical, shapes[r]);
+            }
+        }
+        return table;
+    }
+
+    // Returns a copy of the shape matrix rotated 90 degrees clockwise.
+    private static int[][] rotateClockwise(int[][] shape) {
+        int rows = shape.length;
+        int cols = shape[0].length;
+        int[][] rotatedShape = new int[cols][rows];
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                rotatedShape[j][rows - 1 - i] = shape[i][j];
+            }
+        }
+        return rotatedShape;
+    }
+}
@@ -10,6 +10,7 @@
  * Usage:
  *   - Use PieceType values (I, J, L, O, S, T, Z) to define the type of a Tetris piece.
  *   - Retrieve the color associated with a PieceType using the getColor() method.
+ *   - Use fromIndex() and count() instead of values() on hot paths.
  *
  * Dependencies:
  *   - Java AWT Color class for color representation
@@ -29,6 +30,9 @@ public enum PieceType {
     T(Color.MAGENTA),   // Magenta - T-shaped Tetromino
     Z(Color.RED);       // Red - Z-shaped Tetromino
 
+    // Cached copy of values() so lookups by index do not clone the array
+    private static final PieceType[] VALUES = values();
+
     private final Color color;
 
     // Constructor: Associates a specific color with each PieceType.
@@ -40,4 +44,14 @@ public enum PieceType {
     public Color getColor() {
         return color;
     }
+
+    // Retrieves the PieceType with the given ordinal without allocating.
+    public static PieceType fromIndex(int index) {
+        return VALUES[index];
+    }
+
+    // Retrieves the number of PieceTypes.
+    public static int count() {
+        return VALUES.length;
+    }
 }
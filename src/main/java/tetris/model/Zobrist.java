@@ -0,0 +1,78 @@
+/*
+ * Zobrist.java
+ *
+ * This class provides the Zobrist keys used to hash board positions. Every board cell and every
+ * (piece type, rotation) pair has a fixed pseudo-random 64-bit key, and a position's hash is the
+ * XOR of the keys of everything in it. Because XOR undoes itself, GameBoard can keep its hash
+ * up to date as single cells change instead of rehashing the whole grid.
+ *
+ * Keys are derived on demand from the index with a SplitMix64 mixing function rather than
+ * stored in a table, so boards of any size hash without preallocating key arrays.
+ *
+ * Author: Lauren Greg
+ * Last Updated Date: 12/09/2024
+ *
+ * Usage:
+ *   - GameBoard.getHash() returns the board's occupancy hash, maintained incrementally.
+ *   - Zobrist.hash(board, piece) folds in the active piece's type, orientation and position.
+ *   - Zobrist.queueKey(type, index) keys an upcoming piece, for caches keyed by board and queue.
+ *   - Zobrist.rowsLeftKey(rows) keys how many rows a perfect-clear search has left to clear.
+ */
+
+package main.java.tetris.model;
+
+public final class Zobrist {
+
+    // Distinct salts so cell, piece, position, queue and search keys never collide with each other
+    private static final long CELL_SALT = 0x243F6A8885A308D3L;
+    private static final long PIECE_SALT = 0x13198A2E03707344L;
+    private static final long POSITION_SALT = 0xA4093822299F31D0L;
+    private static final long QUEUE_SALT = 0x082EFA98EC4E6C89L;
+    private static final long ROWS_LEFT_SALT = 0x452821E638D01377L;
+
+    private Zobrist() {
+    }
+
+    // Retrieves the key for an occupied cell at a row-major index (y * width + x).
+    public static long cellKey(int index) {
+        return mix(CELL_SALT + index);
+    }
+
+    // Retrieves the key for a piece type in a given orientation.
+    public static long pieceKey(PieceType type, int rotation) {
+        return mix(PIECE_SALT + type.ordinal() * ModelConstants.ROTATION_COUNT
+                + (rotation & (ModelConstants.ROTATION_COUNT - 1)));
+    }
+
+    // Retrieves the key for a piece position on the board.
+    public static long positionKey(int x, int y) {
+        return mix(POSITION_SALT + (((long) y << 32) | (x & 0xFFFFFFFFL)));
+    }
+
+    // Retrieves the key for a piece type at a position in the piece queue (0 is the current piece).
+    public static long queueKey(PieceType type, int index) {
+        return mix(QUEUE_SALT + (long) index * PieceType.count() + type.ordinal());
+    }
+
+    // Retrieves the key for the number of rows a search still has to clear.
+    public static long rowsLeftKey(int rowsLeft) {
+        return mix(ROWS_LEFT_SALT + rowsLeft);
+    }
+
+    // Hashes a board together with its active piece (which may be null).
+    public static long hash(GameBoard board, Piece piece) {
+        long hash = board.getHash();
+        if (piece != null) {
+            hash ^= pieceKey(piece.getType(), piece.getRotation()) ^ positionKey(piece.getX(), piece.getY());
+        }
+        return hash;
+    }
+
+    // SplitMix64 finalizer: spreads a counter into a well-distributed 64-bit value.
+    private static long mix(long z) {
+        z *= 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
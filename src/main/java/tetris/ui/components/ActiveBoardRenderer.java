@@ -0,0 +1,264 @@
+/*
+ * ActiveBoardRenderer.java
+ *
+ * This class is an optional, actively rendered view of the game board. Instead of waiting for
+ * Swing to coalesce repaint() calls, a dedicated render thread draws the latest GameSnapshot into
+ * a Canvas through a BufferStrategy (page flipping when the platform offers it) at a steady,
+ * nanoTime-paced frame rate. The achieved frame rate and the number of dropped frames are tracked
+ * and shown in the corner of the board.
+ *
+ * The game logic runs at a fixed GameLoop.TICKS_PER_SECOND, which is slower than a high refresh
+ * rate display. Between snapshots, the active piece is drawn part of the way from its previous
+ * position to its current one. The move is spread over the time that separated the two snapshots,
+ * at most one gravity step, so a piece falling under gravity glides down a cell per step instead
+ * of jumping within a single tick. Line clears flash for a fixed length of render time, whatever
+ * the tick rate, and the board collapses once the flash ends. Passive Swing painting has neither
+ * interpolation nor the clear animation.
+ *
+ * Author: Justin Morgan
+ * Last Updated Date: 12/09/2024
+ *
+ * Usage:
+ *   - Check isSupported() first; GameBoardUI.enableActiveRendering does this and embeds the canvas.
+ *   - Rendering starts when the canvas is added to a displayed window and stops when it is removed.
+ *   - If no buffer strategy can be created, the onFailure callback is run on the EDT so the caller
+ *     can fall back to passive painting.
+ *
+ * Dependencies:
+ *   - BoardPainter for drawing the snapshot (shared with GameBoardUI)
+ *   - A snapshot source, usually GameLoop::getSnapshot
+ */
+
+package main.java.tetris.ui.components;
+
+import main.java.tetris.mechanics.GameController;
+import main.java.tetris.mechanics.GameLoop;
+import main.java.tetris.mechanics.GameSnapshot;
+
+import java.awt.*;
+import java.awt.image.BufferStrategy;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+import javax.swing.*;
+
+public final class ActiveBoardRenderer extends Canvas {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final int DEFAULT_TARGET_FPS = 60;
+
+    private static final int BUFFER_COUNT = 2;                  // Front buffer plus one back buffer
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final long JOIN_TIMEOUT_MS = 1000;           // Wait for the render thread on removal
+    private static final Font STATS_FONT = new Font("Arial", Font.PLAIN, 12);
+    private static final Color STATS_COLOR = Color.WHITE;
+    private static final int STATS_MARGIN = 4;
+
+    // Longest time a move is spread over: one gravity step
+    private static final long MAX_INTERPOLATION_NANOS = GameController.TIMER_INTERVAL_MS * 1_000_000L;
+
+    private final Supplier<GameSnapshot> source;
+    private final BoardPainter painter;
+    private final Color background;
+    private final long frameNanos;
+    private final Runnable onFailure;
+
+    private volatile boolean running;
+    private Thread renderThread;                // Guarded by the EDT (addNotify/removeNotify)
+    private volatile double framesPerSecond;    // Frames shown over the last second
+    private volatile long droppedFrames;        // Frame slots missed since rendering started
+    private volatile boolean pageFlipping;      // Whether the buffer strategy flips pages
+    private String statsText = "";              // Overlay text, rebuilt once a second (render thread only)
+    private GameSnapshot current;               // Snapshot drawn last frame (render thread only)
+    private GameSnapshot previous;              // Snapshot published before current (render thread only)
+    private long interpolationNanos = GameLoop.TICK_NANOS; // Time the last move is spread over (render thread only)
+
+    // Creates a renderer that draws snapshots from the source at the target frame rate.
+    public ActiveBoardRenderer(Supplier<GameSnapshot> source, int targetFps, Color background, Runnable onFailure) {
+        if (targetFps < 1) {
+            throw new IllegalArgumentException("Target frame rate must be positive");
+        }
+        this.source = source;
+        this.painter = new BoardPainter(background);
+        this.background = background;
+        this.frameNanos = NANOS_PER_SECOND / targetFps;
+        this.onFailure = onFailure;
+        setBackground(background);
+        setIgnoreRepaint(true);
+        setFocusable(false); // Keys keep going to the enclosing GameBoardUI
+    }
+
+    // Returns true if the default screen can give a canvas accelerated back buffers.
+    public static boolean isSupported() {
+        if (GraphicsEnvironment.isHeadless()) {
+            return false;
+        }
+        GraphicsConfiguration config = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                .getDefaultScreenDevice().getDefaultConfiguration();
+        return config.getBufferCapabilities().getBackBufferCapabilities().isAccelerated();
+    }
+
+    // Retrieves the frame rate achieved over the last second.
+    public double getFramesPerSecond() {
+        return framesPerSecond;
+    }
+
+    // Retrieves the number of frame slots missed because a frame took too long.
+    public long getDroppedFrames() {
+        return droppedFrames;
+    }
+
+    // Returns true if frames are shown by flipping pages rather than by copying the back buffer.
+    public boolean isPageFlipping() {
+        return pageFlipping;
+    }
+
+    // Creates the buffer strategy and starts the render thread once the canvas is displayable.
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        if (!createStrategy()) {
+            SwingUtilities.invokeLater(onFailure);
+            return;
+        }
+        running = true;
+        renderThread = new Thread(this::renderLoop, "tetris-render");
+        renderThread.setDaemon(true);
+        renderThread.start();
+    }
+
+    // Stops the render thread before the canvas's buffers are released.
+    @Override
+    public void removeNotify() {
+        running = false;
+        if (renderThread != null) {
+            renderThread.interrupt();
+            try {
+                renderThread.join(JOIN_TIMEOUT_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            renderThread = null;
+        }
+        super.removeNotify();
+    }
+
+    // The render thread draws every frame, so AWT paint requests are ignored.
+    @Override
+    public void paint(Graphics g) {
+    }
+
+    @Override
+    public void update(Graphics g) {
+    }
+
+    // Asks for page flipping and accepts whatever strategy AWT can provide otherwise.
+    private boolean createStrategy() {
+        BufferCapabilities flipping = new BufferCapabilities(new ImageCapabilities(true),
+                new ImageCapabilities(true), BufferCapabilities.FlipContents.UNDEFINED);
+        try {
+            createBufferStrategy(BUFFER_COUNT, flipping);
+        } catch (AWTException e) {
+            try {
+                createBufferStrategy(BUFFER_COUNT);
+            } catch (IllegalStateException | IllegalArgumentException fallbackFailure) {
+                fallbackFailure.printStackTrace();
+                return false;
+            }
+        } catch (IllegalStateException e) {
+            e.printStackTrace();
+            return false;
+        }
+        BufferStrategy strategy = getBufferStrategy();
+        pageFlipping = strategy != null && strategy.getCapabilities().isPageFlipping();
+        return strategy != null;
+    }
+
+    /*
+     * Renders a frame every frameNanos. A frame that finishes after its slot has passed counts the
+     * missed slots as dropped and restarts the schedule from now, rather than rendering a burst of
+     * late frames to catch up.
+     */
+    private void renderLoop() {
+        long nextFrame = System.nanoTime();
+        long windowStart = nextFrame;
+        int framesInWindow = 0;
+        while (running) {
+            try {
+                renderFrame();
+            } catch (IllegalStateException e) {
+                // Buffers are briefly unavailable while the window is hidden or resized; try next frame
+            }
+            framesInWindow++;
+
+            long now = System.nanoTime();
+            if (now - windowStart >= NANOS_PER_SECOND) {
+                framesPerSecond = framesInWindow * (double) NANOS_PER_SECOND / (now - windowStart);
+                statsText = String.format("%.0f fps, %d dropped", framesPerSecond, droppedFrames);
+                framesInWindow = 0;
+                windowStart = now;
+            }
+
+            nextFrame += frameNanos;
+            if (now - nextFrame >= frameNanos) {
+                droppedFrames += (now - nextFrame) / frameNanos;
+                nextFrame = now;
+            }
+            long remaining;
+            while (running && (remaining = nextFrame - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(remaining);
+            }
+        }
+    }
+
+    /*
+     * Draws the latest snapshot into the back buffer and shows it. The nested loops are the
+     * standard BufferStrategy pattern: redraw if the buffer was restored while drawing, and
+     * repeat the whole frame if its contents were lost before they could be shown.
+     */
+    private void renderFrame() {
+        BufferStrategy strategy = getBufferStrategy();
+        GameSnapshot state = source.get();
+        if (strategy == null || state == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (state != current) {
+            previous = current;
+            current = state;
+            if (previous != null) {
+                // Replay the move at the pace it was made: a gravity step glides over the whole step
+                interpolationNanos = Math.max(GameLoop.TICK_NANOS, Math.min(MAX_INTERPOLATION_NANOS,
+                        state.getCaptureNanos() - previous.getCaptureNanos()));
+                if (state.getLinesCleared() > previous.getLinesCleared()) {
+                    painter.startClearAnimation(previous, state, now);
+                }
+            }
+        }
+        double fraction = Math.min(1.0, (now - state.getCaptureNanos()) / (double) interpolationNanos);
+        GraphicsConfiguration config = getGraphicsConfiguration();
+        do {
+            do {
+                Graphics g = strategy.getDrawGraphics();
+                try {
+                    g.setColor(background);
+                    g.fillRect(0, 0, getWidth(), getHeight());
+                    painter.updateLayout(state.getBoardWidth(), state.getBoardHeight(), getWidth(), getHeight());
+                    painter.paint(g, state, previous, fraction, now, config);
+                    drawStats(g);
+                } finally {
+                    g.dispose();
+                }
+            } while (strategy.contentsRestored());
+            strategy.show();
+        } while (strategy.contentsLost());
+        Toolkit.getDefaultToolkit().sync();
+    }
+
+    // Draws the achieved frame rate and dropped frame count in the top-left corner.
+    private void drawStats(Graphics g) {
+        g.setFont(STATS_FONT);
+        g.setColor(STATS_COLOR);
+        g.drawString(statsText, STATS_MARGIN, STATS_MARGIN + g.getFontMetrics().getAscent());
+    }
+}
@@ -0,0 +1,442 @@
+/*
+ * BoardPainter.java
+ *
+ * This class draws a GameSnapshot: the locked stack, the ghost piece and the active piece. It is
+ * shared by the passive Swing view (GameBoardUI) and the active Canvas renderer
+ * (ActiveBoardRenderer), so both produce the same picture. Each painter keeps its own layout and
+ * cached stack layer, so an instance must only be used by one thread. When the board changed by
+ * a single lock, only the rows that lock changed are redrawn into the layer; boards too large
+ * for one accelerated image are drawn cell by cell within the clip instead.
+ *
+ * Boards with more cells than the surface has pixels are drawn at a fractional scale: the locked
+ * cells go into an overview image with one pixel per screen pixel, where each pixel shows the
+ * first filled cell of the block it covers, so the whole board stays visible.
+ *
+ * For renderers that draw faster than the logic ticks, the active piece can be drawn part of the
+ * way between its previous and current positions, and cleared rows can flash and fade over a
+ * fixed length of render time. While they fade, the rows the clear shifted are drawn as they were
+ * before it (the old stack plus the locked piece), so the board only collapses once the flash
+ * ends. Only ActiveBoardRenderer animates clears; the passive Swing path (GameBoardUI) shows the
+ * collapsed board straight away, and sub-pixel boards are never animated.
+ *
+ * Author: Justin Morgan
+ * Last Updated Date: 12/09/2024
+ *
+ * Usage:
+ *   - Call updateLayout with the board and surface sizes, then paint(g, snapshot, config).
+ *   - To interpolate, pass the previous snapshot, the fraction of a tick elapsed and the render
+ *     time to paint.
+ *   - Call startClearAnimation with the snapshots before and after a lock that cleared rows.
+ *   - Use cellLeft and cellTop to map cells to pixels (e.g. for dirty regions).
+ *
+ * Dependencies:
+ *   - GameSnapshot for the state to draw
+ *   - TileAtlas for the pre-rendered cell images
+ */
+
+package main.java.tetris.ui.components;
+
+import main.java.tetris.mechanics.GameSnapshot;
+import main.java.tetris.model.LineClearResult;
+import main.java.tetris.model.PieceOrientation;
+import main.java.tetris.model.PieceType;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
+
+final class BoardPainter {
+
+    private static final long CLEAR_ANIMATION_NANOS = 250_000_000L; // Length of the line clear flash
+    private static final int CLEAR_FADE_STEPS = 16;                 // Distinct opacities in the fade
+    private static final int CLEAR_FLASH_ALPHA = 220;               // Opacity at the start of the fade
+    private static final Color[] CLEAR_FADE = new Color[CLEAR_FADE_STEPS];
+    private static final long MAX_LAYER_PIXELS = 1L << 22;          // Largest stack layer kept in video memory
+
+    static {
+        for (int i = 0; i < CLEAR_FADE_STEPS; i++) {
+            CLEAR_FADE[i] = new Color(255, 255, 255, CLEAR_FLASH_ALPHA * (CLEAR_FADE_STEPS - i) / CLEAR_FADE_STEPS);
+        }
+    }
+
+    private final TileAtlas atlas = TileAtlas.getShared();
+    private final Color background;     // Fill behind the locked cells in the stack layer
+
+    // Scale and board position from the last layout
+    private double scale = 1;           // Pixels per cell; below 1 the board is drawn through the overview
+    private boolean subPixel;           // True when cells are smaller than a pixel
+    private int cellSize = 1;           // Whole pixels per cell (1 when subPixel)
+    private int originX;
+    private int originY;
+    private int boardPixelWidth;
+    private int boardPixelHeight;
+
+    // Locked cells of a sub-pixel board, one pixel per screen pixel
+    private BufferedImage overview;
+    private GameSnapshot overviewSnapshot; // Snapshot the overview was drawn from, or null if it must be redrawn
+    private double overviewScale;
+
+    // Locked cells rendered once per board change
+    private VolatileImage stackLayer;
+    private GameSnapshot layerSnapshot; // Snapshot the layer was drawn from, or null if it must be redrawn
+    private int layerCellSize;
+
+    // Line clear animation in progress
+    private GameSnapshot clearBefore;   // Board before the clearing lock, or null if none is running
+    private GameSnapshot clearAfter;    // Board after the clear; the animation stops once it changes
+    private long clearStartNanos;
+
+    BoardPainter(Color background) {
+        this.background = background;
+    }
+
+    /*
+     * Scales cells to fit a surface of the given size and centers the board inside it. Cells are
+     * a whole number of pixels when they fit; larger boards get a fractional scale instead.
+     */
+    void updateLayout(int columns, int rows, int width, int height) {
+        double fit = Math.min(width / (double) columns, height / (double) rows);
+        subPixel = fit > 0 && fit < 1;
+        cellSize = subPixel ? 1 : Math.max(1, (int) fit);
+        scale = subPixel ? fit : cellSize;
+        boardPixelWidth = subPixel ? (int) Math.ceil(columns * scale) : columns * cellSize;
+        boardPixelHeight = subPixel ? (int) Math.ceil(rows * scale) : rows * cellSize;
+        originX = (width - boardPixelWidth) / 2;
+        originY = (height - boardPixelHeight) / 2;
+    }
+
+    // Retrieves the x coordinate of a column's left edge from the last layout.
+    int cellLeft(int column) {
+        return originX + (subPixel ? (int) (column * scale) : column * cellSize);
+    }
+
+    // Retrieves the y coordinate of a row's top edge from the last layout.
+    int cellTop(int row) {
+        return originY + (subPixel ? (int) (row * scale) : row * cellSize);
+    }
+
+    /*
+     * Draws the snapshot using the last layout. The locked cells come from the overview on a
+     * sub-pixel board, from the cached stack layer when a GraphicsConfiguration is available, and
+     * are drawn directly (limited to the clip) otherwise.
+     */
+    void paint(Graphics g, GameSnapshot state, GraphicsConfiguration config) {
+        paint(g, state, null, 1, 0, config);
+    }
+
+    /*
+     * Draws the snapshot with the active piece shown a fraction (0 to 1) of the way from its
+     * position in the previous snapshot to its current one. Only a one-cell move of the same
+     * piece in the same orientation is interpolated; anything else is drawn where it is. A line
+     * clear animation in progress is drawn for the given render time, under the active piece.
+     */
+    void paint(Graphics g, GameSnapshot state, GameSnapshot previous, double fraction, long nowNanos,
+               GraphicsConfiguration config) {
+        if (subPixel) {
+            paintOverview(g, config, state);
+        } else if (config != null && layerPixels(state) <= MAX_LAYER_PIXELS) {
+            paintStackLayer(g, config, state);
+        } else {
+            paintCells(g, state);
+        }
+        paintClearAnimation(g, state, nowNanos);
+
+        // Draw the ghost piece, then the current active piece over it
+        if (state.getPieceType() != null) {
+            int offsetX = 0;
+            int offsetY = 0;
+            if (isSmallMove(previous, state)) {
+                double behind = (1 - fraction) * scale;
+                offsetX = (int) Math.round((previous.getPieceX() - state.getPieceX()) * behind);
+                offsetY = (int) Math.round((previous.getPieceY() - state.getPieceY()) * behind);
+            }
+            if (state.getGhostY() != state.getPieceY()) {
+                drawGhost(g, state, offsetX);
+            }
+            drawPiece(g, state, offsetX, offsetY);
+        }
+    }
+
+    /*
+     * Starts the clear animation for a lock that cleared rows. The after snapshot must follow the
+     * before snapshot by exactly one lock; otherwise there is nothing to animate.
+     */
+    void startClearAnimation(GameSnapshot before, GameSnapshot after, long nowNanos) {
+        if (after.getLastClear().getCount() == 0 || !after.followsByOneLock(before)) {
+            return;
+        }
+        clearBefore = before;
+        clearAfter = after;
+        clearStartNanos = nowNanos;
+    }
+
+    /*
+     * Draws the rows the clear shifted as they were before it, with the cleared rows flashing and
+     * fading as render time passes. Once the time is up or the board changes again, the collapsed
+     * board underneath is left as it is.
+     */
+    private void paintClearAnimation(Graphics g, GameSnapshot state, long nowNanos) {
+        long elapsed = nowNanos - clearStartNanos;
+        if (clearBefore == null || elapsed >= CLEAR_ANIMATION_NANOS || !state.sameBoardAs(clearAfter)) {
+            clearBefore = null;
+            clearAfter = null;
+            return;
+        }
+        if (subPixel) {
+            return;
+        }
+
+        // Rows above the changed region are empty both before and after the clear
+        int columns = state.getBoardWidth();
+        int top = clearAfter.getChangedTop();
+        int bottom = Math.min(state.getBoardHeight() - 1, clearAfter.getChangedBottom() + 1);
+        g.setColor(background);
+        g.fillRect(originX, cellTop(top), columns * cellSize, cellTop(bottom + 1) - cellTop(top));
+        for (int x = 0; x < columns; x++) {
+            for (int y = top; y <= bottom; y++) {
+                int cellValue = clearBefore.getCell(x, y);
+                if (cellValue != 0) {
+                    drawCell(g, x, y, PieceType.fromIndex(cellValue - 1));
+                }
+            }
+        }
+        PieceOrientation orientation = clearAfter.getLockedOrientation();
+        for (int i = 0; i < orientation.getCellCount(); i++) {
+            drawCell(g, clearAfter.getLockedX() + orientation.getCellX(i),
+                    clearAfter.getLockedY() + orientation.getCellY(i), clearAfter.getLockedType());
+        }
+
+        // Flash the cleared rows, which are still in their places before the clear
+        LineClearResult cleared = clearAfter.getLastClear();
+        g.setColor(CLEAR_FADE[(int) (elapsed * CLEAR_FADE_STEPS / CLEAR_ANIMATION_NANOS)]);
+        for (int i = 0; i < cleared.getCount(); i++) {
+            int row = cleared.getClearedRow(i);
+            g.fillRect(originX, cellTop(row), columns * cellSize, cellSize);
+        }
+    }
+
+    // Returns true if the active piece moved by at most one cell without rotating or locking.
+    private static boolean isSmallMove(GameSnapshot previous, GameSnapshot state) {
+        return previous != null
+                && previous.getPiecesPlaced() == state.getPiecesPlaced()
+                && previous.getPieceType() == state.getPieceType()
+                && previous.getOrientation() == state.getOrientation()
+                && Math.abs(previous.getPieceX() - state.getPieceX()) <= 1
+                && Math.abs(previous.getPieceY() - state.getPieceY()) <= 1;
+    }
+
+    // Retrieves the size in pixels of a stack layer for the snapshot's board at the current cell size.
+    private long layerPixels(GameSnapshot state) {
+        return ((long) state.getBoardWidth() * cellSize + 1) * ((long) state.getBoardHeight() * cellSize + 1);
+    }
+
+    /*
+     * Draws the locked cells from the cached layer, redrawing the layer only if the board, the cell
+     * size, or the layer's contents changed. A single lock redraws just the rows it changed.
+     * VolatileImage contents can be lost at any time (for example when the display mode changes),
+     * so the blit is retried until it sticks.
+     */
+    private void paintStackLayer(Graphics g, GraphicsConfiguration config, GameSnapshot state) {
+        int width = state.getBoardWidth() * cellSize + 1;
+        int height = state.getBoardHeight() * cellSize + 1;
+        do {
+            if (stackLayer == null || stackLayer.getWidth() != width || stackLayer.getHeight() != height) {
+                createStackLayer(config, width, height);
+            }
+            int status = stackLayer.validate(config);
+            if (status == VolatileImage.IMAGE_INCOMPATIBLE) {
+                createStackLayer(config, width, height);
+            } else if (status == VolatileImage.IMAGE_RESTORED) {
+                layerSnapshot = null;
+            }
+            if (layerSnapshot == null || layerCellSize != cellSize) {
+                renderStackLayer(state);
+            } else if (!state.sameBoardAs(layerSnapshot)) {
+                if (state.followsByOneLock(layerSnapshot)) {
+                    renderStackRegion(state);
+                } else {
+                    renderStackLayer(state);
+                }
+            }
+            g.drawImage(stackLayer, originX, originY, null);
+        } while (stackLayer.contentsLost());
+    }
+
+    // Draws the locked cells of a sub-pixel board from the overview, redrawing it if the board changed.
+    private void paintOverview(Graphics g, GraphicsConfiguration config, GameSnapshot state) {
+        if (overview == null || overview.getWidth() != boardPixelWidth || overview.getHeight() != boardPixelHeight
+                || overviewScale != scale) {
+            overview = config != null
+                    ? config.createCompatibleImage(boardPixelWidth, boardPixelHeight, Transparency.OPAQUE)
+                    : new BufferedImage(boardPixelWidth, boardPixelHeight, BufferedImage.TYPE_INT_RGB);
+            overviewScale = scale;
+            overviewSnapshot = null;
+        }
+        if (!state.sameBoardAs(overviewSnapshot)) {
+            if (state.followsByOneLock(overviewSnapshot)) {
+                // Every pixel row that covers part of a changed row
+                renderOverviewRows(state, (int) (state.getChangedTop() * scale),
+                        Math.min(boardPixelHeight - 1, (int) ((state.getChangedBottom() + 1) * scale)));
+            } else {
+                renderOverviewRows(state, 0, boardPixelHeight - 1);
+            }
+            overviewSnapshot = state;
+        }
+        g.drawImage(overview, originX, originY, null);
+    }
+
+    // Redraws the given pixel rows of the overview from the snapshot's cells.
+    private void renderOverviewRows(GameSnapshot state, int firstPixelRow, int lastPixelRow) {
+        int columns = state.getBoardWidth();
+        int rows = state.getBoardHeight();
+        int backgroundRgb = background.getRGB();
+        for (int py = firstPixelRow; py <= lastPixelRow; py++) {
+            int rowStart = cellAt(py, rows);
+            int rowEnd = Math.min(rows, Math.max(rowStart + 1, cellAt(py + 1, rows)));
+            for (int px = 0; px < boardPixelWidth; px++) {
+                int columnStart = cellAt(px, columns);
+                int columnEnd = Math.min(columns, Math.max(columnStart + 1, cellAt(px + 1, columns)));
+                overview.setRGB(px, py, blockColor(state, columnStart, columnEnd, rowStart, rowEnd, backgroundRgb));
+            }
+        }
+    }
+
+    // Retrieves the first cell index covered by a pixel of the overview.
+    private int cellAt(int pixel, int count) {
+        return Math.min(count, (int) (pixel / scale));
+    }
+
+    // Returns the color of the first filled cell in a block, or the background if it is empty.
+    private static int blockColor(GameSnapshot state, int columnStart, int columnEnd, int rowStart, int rowEnd,
+                                  int backgroundRgb) {
+        for (int y = rowStart; y < rowEnd; y++) {
+            for (int x = columnStart; x < columnEnd; x++) {
+                int cellValue = state.getCell(x, y);
+                if (cellValue != 0) {
+                    return PieceType.fromIndex(cellValue - 1).getColor().getRGB();
+                }
+            }
+        }
+        return backgroundRgb;
+    }
+
+    // Replaces the stack layer with a new image of the given size, to be drawn on next use.
+    private void createStackLayer(GraphicsConfiguration config, int width, int height) {
+        if (stackLayer != null) {
+            stackLayer.flush();
+        }
+        stackLayer = config.createCompatibleVolatileImage(width, height, Transparency.OPAQUE);
+        layerSnapshot = null;
+    }
+
+    // Redraws every locked cell of the snapshot into the stack layer.
+    private void renderStackLayer(GameSnapshot state) {
+        Graphics2D g = stackLayer.createGraphics();
+        g.setColor(background);
+        g.fillRect(0, 0, stackLayer.getWidth(), stackLayer.getHeight());
+        for (int x = 0; x < state.getBoardWidth(); x++) {
+            for (int y = 0; y < state.getBoardHeight(); y++) {
+                int cellValue = state.getCell(x, y);
+                if (cellValue != 0) {
+                    g.drawImage(atlas.getTile(PieceType.fromIndex(cellValue - 1), cellSize),
+                            x * cellSize, y * cellSize, null);
+                }
+            }
+        }
+        g.dispose();
+        layerSnapshot = state;
+        layerCellSize = cellSize;
+    }
+
+    /*
+     * Redraws only the cells changed by the snapshot's last lock. Neighbouring cells are drawn
+     * again in the same order as renderStackLayer, so the outlines they share with the region
+     * come out exactly as a full redraw would leave them.
+     */
+    private void renderStackRegion(GameSnapshot state) {
+        int left = state.getChangedLeft();
+        int right = state.getChangedRight();
+        int top = state.getChangedTop();
+        int bottom = state.getChangedBottom();
+        int width = (right - left + 1) * cellSize + 1;
+        int height = (bottom - top + 1) * cellSize + 1;
+        Graphics2D g = stackLayer.createGraphics();
+        g.clipRect(left * cellSize, top * cellSize, width, height);
+        g.setColor(background);
+        g.fillRect(left * cellSize, top * cellSize, width, height);
+        for (int x = Math.max(0, left - 1); x <= Math.min(state.getBoardWidth() - 1, right + 1); x++) {
+            for (int y = Math.max(0, top - 1); y <= Math.min(state.getBoardHeight() - 1, bottom + 1); y++) {
+                int cellValue = state.getCell(x, y);
+                if (cellValue != 0) {
+                    g.drawImage(atlas.getTile(PieceType.fromIndex(cellValue - 1), cellSize),
+                            x * cellSize, y * cellSize, null);
+                }
+            }
+        }
+        g.dispose();
+        layerSnapshot = state;
+    }
+
+    // Draws the locked cells directly, used when no accelerated surface is available or the board is too large for one.
+    private void paintCells(Graphics g, GameSnapshot state) {
+        int columns = state.getBoardWidth();
+        int rows = state.getBoardHeight();
+
+        // Only visit the cells that intersect the area being repainted
+        Rectangle clip = g.getClipBounds();
+        int firstColumn = 0, lastColumn = columns - 1, firstRow = 0, lastRow = rows - 1;
+        if (clip != null) {
+            firstColumn = Math.max(0, (clip.x - originX) / cellSize);
+            lastColumn = Math.min(columns - 1, (clip.x + clip.width - originX) / cellSize);
+            firstRow = Math.max(0, (clip.y - originY) / cellSize);
+            lastRow = Math.min(rows - 1, (clip.y + clip.height - originY) / cellSize);
+        }
+
+        // Draw the game board cells
+        for (int x = firstColumn; x <= lastColumn; x++) {
+            for (int y = firstRow; y <= lastRow; y++) {
+                int cellValue = state.getCell(x, y);
+                if (cellValue != 0) {
+                    drawCell(g, x, y, PieceType.fromIndex(cellValue - 1));
+                }
+            }
+        }
+    }
+
+    // Draws the snapshot's active piece on the board, shifted by the given number of pixels.
+    private void drawPiece(Graphics g, GameSnapshot state, int offsetX, int offsetY) {
+        PieceOrientation orientation = state.getOrientation();
+        Image tile = atlas.getTile(state.getPieceType(), cellSize);
+        for (int i = 0; i < orientation.getCellCount(); i++) {
+            drawTile(g, tile, state.getPieceX() + orientation.getCellX(i),
+                    state.getPieceY() + orientation.getCellY(i), offsetX, offsetY);
+        }
+    }
+
+    // Draws a translucent outline of the active piece at its landing row, shifted horizontally.
+    private void drawGhost(Graphics g, GameSnapshot state, int offsetX) {
+        PieceOrientation orientation = state.getOrientation();
+        Image tile = atlas.getGhostTile(state.getPieceType(), cellSize);
+        for (int i = 0; i < orientation.getCellCount(); i++) {
+            drawTile(g, tile, state.getPieceX() + orientation.getCellX(i),
+                    state.getGhostY() + orientation.getCellY(i), offsetX, 0);
+        }
+    }
+
+    // Draws a single cell on the board from its pre-rendered tile.
+    private void drawCell(Graphics g, int x, int y, PieceType type) {
+        drawTile(g, atlas.getTile(type, cellSize), x, y, 0, 0);
+    }
+
+    // Draws a tile at a cell, stretching it over the cell's pixels when cells are smaller than a pixel.
+    private void drawTile(Graphics g, Image tile, int column, int row, int offsetX, int offsetY) {
+        int x = cellLeft(column) + offsetX;
+        int y = cellTop(row) + offsetY;
+        if (subPixel) {
+            g.drawImage(tile, x, y, Math.max(1, cellLeft(column + 1) + offsetX - x),
+                    Math.max(1, cellTop(row + 1) + offsetY - y), null);
+        } else {
+            g.drawImage(tile, x, y, null);
+        }
+    }
+}
@@ -3,53 +3,77 @@
  *
  * This class handles the graphical representation of the Tetris game board and its components.
  * It displays the current state of the board, the active piece, and renders each cell with
- * appropriate colors and borders.
+ * appropriate colors and borders. It paints from immutable GameSnapshots published by the
+ * game loop, so it never reads the live board while the engine is updating it.
  *
  * Author: Justin Morgan
  * Last Updated Date: 12/03/2024
  *
  * Features:
- * - Dynamically renders the game board and active piece.
+ * - Dynamically renders the game board, the active piece, and its ghost at the landing row.
  * - Supports property change listeners to notify changes in the next piece.
- * - Customizable cell size and board dimensions via constants.
+ * - Boards of any size: cells are scaled to fit the panel and only the cells inside the
+ *   clip region are drawn, so very large sandbox boards stay cheap to repaint. Boards with more
+ *   cells than the panel has pixels are shrunk below one pixel per cell, so they stay whole.
+ * - Dirty-region repainting: a new snapshot only repaints the cells that changed (the active
+ *   piece and ghost before and after, plus the locked piece's box or the rows a clear shifted,
+ *   taken from the snapshot without comparing cells). Skipped snapshots and new games fall
+ *   back to a full repaint.
+ * - Cached stack layer: the locked cells are rendered into an accelerated VolatileImage that is
+ *   only redrawn when the board changes, so a frame is one blit plus the active piece and ghost.
+ * - Optional active rendering: the board can instead be drawn by an ActiveBoardRenderer canvas
+ *   embedded in this panel, paced by its own render thread. Unsupported displays stay passive.
  *
  * Dependencies:
- * - GameBoard for the state of the game board.
- * - Piece and PieceType for active piece and color information.
+ * - GameSnapshot for the state of the game board and active piece.
+ * - Piece for the next piece preview.
+ * - BoardPainter for drawing the snapshot.
+ * - ActiveBoardRenderer for the optional actively rendered Canvas.
  */
 
 package main.java.tetris.ui.components;
 
+import main.java.tetris.mechanics.GameSnapshot;
 import main.java.tetris.model.Piece;
-import main.java.tetris.model.GameBoard;
-import main.java.tetris.model.PieceType;
+import main.java.tetris.model.PieceOrientation;
 
 import java.awt.*;
 import javax.swing.*;
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
+import java.util.function.Supplier;
 
-import static main.java.tetris.model.ModelConstants.*;
+public final class GameBoardUI extends JPanel {
 
-public class GameBoardUI extends JPanel {
-
-    private static final int CELL_SIZE = 30; // Cell size in pixels
+    private static final int CELL_SIZE = 30; // Preferred cell size in pixels
+    private static final int MAX_PREFERRED_WIDTH = 300;  // Preferred size is capped to this width
+    private static final int MAX_PREFERRED_HEIGHT = 600; // Preferred size is capped to this height
     private static final Color BACKGROUND_COLOR = Color.GRAY; // Default background color
 
-    private final GameBoard gameBoard;
     private final PropertyChangeSupport pcs = new PropertyChangeSupport(this);
-    private Piece currentPiece;
+    private GameSnapshot snapshot;
     private Piece nextPiece;
 
-    // Constructor for the GameBoardUI.
-    public GameBoardUI(GameBoard gameBoard, Piece currentPiece) {
-        this.gameBoard = gameBoard;
-        this.currentPiece = currentPiece;
+    // Draws the board for the passive path (EDT only)
+    private final BoardPainter painter = new BoardPainter(BACKGROUND_COLOR);
+
+    // Canvas drawing the board on its own thread, or null when Swing paints it
+    private ActiveBoardRenderer activeRenderer;
 
-        // Calculate dimensions based on board size and cell size
-        int width = BOARD_WIDTH * CELL_SIZE;
-        int height = BOARD_HEIGHT * CELL_SIZE;
-        Dimension size = new Dimension(width, height);
+    // Constructor for the GameBoardUI.
+    public GameBoardUI(GameSnapshot snapshot) {
+        this.snapshot = snapshot;
+
+        // Calculate dimensions based on board size, shrinking cells so large boards stay on screen
+        int columns = snapshot.getBoardWidth();
+        int rows = snapshot.getBoardHeight();
+        double preferredScale = Math.min(CELL_SIZE,
+                Math.min(MAX_PREFERRED_WIDTH / (double) columns, MAX_PREFERRED_HEIGHT / (double) rows));
+        if (preferredScale >= 1) {
+            preferredScale = Math.floor(preferredScale); // Whole-pixel cells whenever they fit
+        }
+        Dimension size = new Dimension((int) Math.ceil(columns * preferredScale),
+                (int) Math.ceil(rows * preferredScale));
 
         // Configure panel size and appearance
         setPreferredSize(size);
@@ -70,10 +94,34 @@ public class GameBoardUI extends JPanel {
         pcs.removePropertyChangeListener(listener);
     }
 
-    // Sets the currently active piece and triggers a repaint.
-    public void setCurrentPiece(Piece currentPiece) {
-        this.currentPiece = currentPiece;
-        repaint();
+    /*
+     * Sets the game state to display and repaints the parts of the board that changed. Swing
+     * merges the rectangles requested here into one clip region for the next paint.
+     */
+    public void setSnapshot(GameSnapshot snapshot) {
+        GameSnapshot previous = this.snapshot;
+        this.snapshot = snapshot;
+        if (activeRenderer != null) {
+            // The render thread reads the latest snapshot itself
+            return;
+        }
+        if (previous == null || snapshot == null
+                || previous.getBoardWidth() != snapshot.getBoardWidth()
+                || previous.getBoardHeight() != snapshot.getBoardHeight()
+                || !snapshot.sameBoardAs(previous) && !snapshot.followsByOneLock(previous)) {
+            repaint();
+            return;
+        }
+
+        painter.updateLayout(snapshot.getBoardWidth(), snapshot.getBoardHeight(), getWidth(), getHeight());
+        repaintPiece(previous);
+        repaintPiece(snapshot);
+        if (!snapshot.sameBoardAs(previous)) {
+            // Only the locked piece's box, or the rows a clear shifted, can differ
+            repaintCells(snapshot.getChangedLeft(), snapshot.getChangedTop(),
+                    snapshot.getChangedRight() - snapshot.getChangedLeft() + 1,
+                    snapshot.getChangedBottom() - snapshot.getChangedTop() + 1);
+        }
     }
 
     // Sets the next piece and notifies listeners of the change.
@@ -83,49 +131,73 @@ public class GameBoardUI extends JPanel {
         pcs.firePropertyChange("nextPiece", oldPiece, nextPiece);
     }
 
+    /*
+     * Switches the board to an ActiveBoardRenderer drawing snapshots from the source at the target
+     * frame rate. Returns false, leaving Swing painting in place, if the display has no accelerated
+     * buffers. If the canvas later fails to create its buffers, the panel falls back on its own.
+     */
+    public boolean enableActiveRendering(Supplier<GameSnapshot> source, int targetFps) {
+        if (activeRenderer != null) {
+            return true;
+        }
+        if (!ActiveBoardRenderer.isSupported()) {
+            return false;
+        }
+        ActiveBoardRenderer renderer = new ActiveBoardRenderer(source, targetFps, BACKGROUND_COLOR,
+                this::disableActiveRendering);
+        activeRenderer = renderer;
+        setLayout(new BorderLayout());
+        add(renderer, BorderLayout.CENTER);
+        revalidate();
+        return true;
+    }
+
+    // Retrieves the active renderer, or null if Swing is painting the board.
+    public ActiveBoardRenderer getActiveRenderer() {
+        return activeRenderer;
+    }
+
+    // Removes the active renderer and returns to Swing painting.
+    private void disableActiveRendering() {
+        if (activeRenderer != null) {
+            remove(activeRenderer);
+            activeRenderer = null;
+            revalidate();
+            repaint();
+        }
+    }
+
     // Renders the game board and the current piece.
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
 
-        // Draw the game board cells
-        for (int x = 0; x < BOARD_WIDTH; x++) {
-            for (int y = 0; y < BOARD_HEIGHT; y++) {
-                int cellValue = gameBoard.getCell(x, y);
-                if (cellValue != 0) {
-                    PieceType type = PieceType.values()[cellValue - 1];
-                    drawCell(g, x, y, type.getColor());
-                }
-            }
+        GameSnapshot state = snapshot;
+        if (state == null || activeRenderer != null) {
+            return;
         }
 
-        // Draw the current active piece
-        if (currentPiece != null) {
-            drawPiece(g, currentPiece);
-        }
+        // Scale cells to fit the panel and center the board inside it
+        painter.updateLayout(state.getBoardWidth(), state.getBoardHeight(), getWidth(), getHeight());
+        painter.paint(g, state, getGraphicsConfiguration());
     }
 
-    // Draws a piece on the board.
-    private void drawPiece(Graphics g, Piece piece) {
-        int[][] shape = piece.getShape();
-        Color color = piece.getColor();
-        for (int i = 0; i < shape.length; i++) {
-            for (int j = 0; j < shape[0].length; j++) {
-                if (shape[i][j] != 0) {
-                    drawCell(g, piece.getX() + j, piece.getY() + i, color);
-                }
-            }
+    // Requests a repaint of the bounding boxes of a snapshot's active piece and its ghost.
+    private void repaintPiece(GameSnapshot state) {
+        PieceOrientation orientation = state.getOrientation();
+        if (orientation == null) {
+            return;
+        }
+        repaintCells(state.getPieceX(), state.getPieceY(), orientation.getWidth(), orientation.getHeight());
+        if (state.getGhostY() != state.getPieceY()) {
+            repaintCells(state.getPieceX(), state.getGhostY(), orientation.getWidth(), orientation.getHeight());
         }
     }
 
-    // Draws a single cell on the board.
-    private void drawCell(Graphics g, int x, int y, Color color) {
-        int xPos = x * CELL_SIZE;
-        int yPos = y * CELL_SIZE;
-        g.setColor(color);
-        g.fillRect(xPos, yPos, CELL_SIZE, CELL_SIZE);
-        g.setColor(color.darker());
-        g.drawRect(xPos, yPos, CELL_SIZE, CELL_SIZE);
+    // Requests a repaint of a block of cells, including the outline drawn on their far edges.
+    private void repaintCells(int x, int y, int columns, int rows) {
+        int left = painter.cellLeft(x);
+        int top = painter.cellTop(y);
+        repaint(left, top, painter.cellLeft(x + columns) - left + 1, painter.cellTop(y + rows) - top + 1);
     }
 }
-
@@ -0,0 +1,126 @@
+/*
+ * TileAtlas.java
+ *
+ * This class holds pre-rendered cell tiles for every PieceType, one set per cell size. Each tile
+ * is drawn once into a compatible image (which Java2D can keep in video memory), so painting a
+ * cell is a single drawImage call instead of a fill, a new darker Color, and an outline. Because
+ * the style is baked into the image, richer tiles such as gradients or bevels cost nothing extra
+ * per frame.
+ *
+ * Author: Justin Morgan
+ * Last Updated Date: 12/09/2024
+ *
+ * Usage:
+ *   - Use TileAtlas.getShared() from any painter; tiles for a cell size are built on first use.
+ *   - Call getTile(type, cellSize) or getGhostTile(type, cellSize) and draw the image at the
+ *     cell's top-left corner. Tiles include the one-pixel outline past the cell's far edges.
+ *
+ * Dependencies:
+ *   - PieceType for the tile colors
+ *   - The default screen's GraphicsConfiguration for compatible images (plain images when headless)
+ */
+
+package main.java.tetris.ui.components;
+
+import main.java.tetris.model.PieceType;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class TileAtlas {
+
+    private static final int MIN_OUTLINED_CELL_SIZE = 4; // Smaller cells are drawn without an outline
+    private static final int GHOST_ALPHA = 90;           // Opacity of the ghost piece fill (0-255)
+    private static final int MAX_CACHED_SIZES = 8;       // Sizes kept before the cache is rebuilt (resizing)
+
+    private static final TileAtlas SHARED = new TileAtlas();
+
+    // Tiles per cell size: solid tiles by type ordinal, then ghost tiles by type ordinal
+    private final Map<Integer, Image[]> tilesBySize = new ConcurrentHashMap<>();
+
+    private TileAtlas() {
+    }
+
+    // Retrieves the atlas shared by all painters.
+    public static TileAtlas getShared() {
+        return SHARED;
+    }
+
+    // Retrieves the solid tile for a piece type at the given cell size.
+    public Image getTile(PieceType type, int cellSize) {
+        return tiles(cellSize)[type.ordinal()];
+    }
+
+    // Retrieves the translucent ghost tile for a piece type at the given cell size.
+    public Image getGhostTile(PieceType type, int cellSize) {
+        return tiles(cellSize)[PieceType.count() + type.ordinal()];
+    }
+
+    // Retrieves the tiles for a cell size, rendering them the first time the size is used.
+    private Image[] tiles(int cellSize) {
+        Image[] tiles = tilesBySize.get(cellSize);
+        if (tiles == null) {
+            if (tilesBySize.size() >= MAX_CACHED_SIZES) {
+                tilesBySize.clear();
+            }
+            tiles = tilesBySize.computeIfAbsent(cellSize, TileAtlas::render);
+        }
+        return tiles;
+    }
+
+    // Renders the solid and ghost tiles of every piece type for one cell size.
+    private static Image[] render(int cellSize) {
+        GraphicsConfiguration config = GraphicsEnvironment.isHeadless() ? null
+                : GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration();
+        int count = PieceType.count();
+        Image[] tiles = new Image[count * 2];
+        for (int i = 0; i < count; i++) {
+            Color color = PieceType.fromIndex(i).getColor();
+            tiles[i] = renderSolid(config, color, cellSize);
+            tiles[count + i] = renderGhost(config, color, cellSize);
+        }
+        return tiles;
+    }
+
+    // Draws a filled cell with a darker outline (the outline is skipped for very small cells).
+    private static Image renderSolid(GraphicsConfiguration config, Color color, int cellSize) {
+        boolean outlined = cellSize >= MIN_OUTLINED_CELL_SIZE;
+        int size = outlined ? cellSize + 1 : cellSize;
+        BufferedImage tile = createImage(config, size, Transparency.OPAQUE);
+        Graphics2D g = tile.createGraphics();
+        g.setColor(color);
+        g.fillRect(0, 0, cellSize, cellSize);
+        if (outlined) {
+            g.setColor(color.darker());
+            g.drawRect(0, 0, cellSize, cellSize);
+        }
+        g.dispose();
+        return tile;
+    }
+
+    // Draws a translucent fill with a solid outline (skipped for very small cells), used for the ghost piece.
+    private static Image renderGhost(GraphicsConfiguration config, Color color, int cellSize) {
+        boolean outlined = cellSize >= MIN_OUTLINED_CELL_SIZE;
+        BufferedImage tile = createImage(config, outlined ? cellSize + 1 : cellSize, Transparency.TRANSLUCENT);
+        Graphics2D g = tile.createGraphics();
+        g.setComposite(AlphaComposite.Src);
+        g.setColor(new Color(color.getRed(), color.getGreen(), color.getBlue(), GHOST_ALPHA));
+        g.fillRect(0, 0, cellSize, cellSize);
+        if (outlined) {
+            g.setColor(color);
+            g.drawRect(0, 0, cellSize, cellSize);
+        }
+        g.dispose();
+        return tile;
+    }
+
+    // Creates a square image in the screen's native format, or a plain ARGB image when headless.
+    private static BufferedImage createImage(GraphicsConfiguration config, int size, int transparency) {
+        if (config != null) {
+            return config.createCompatibleImage(size, size, transparency);
+        }
+        return new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+    }
+}
@@ -20,7 +20,9 @@
 package main.java.tetris.ui.multiplayerui;
 
 import main.java.tetris.mechanics.GameController;
+import main.java.tetris.model.PieceOrientation;
 import main.java.tetris.ui.components.GameBoardUI;
+import main.java.tetris.ui.components.TileAtlas;
 
 import javax.swing.*;
 import java.awt.*;
@@ -86,25 +88,15 @@ public class PlayerBoardUI extends JPanel {
             }
 
             private void drawNextPiece(Graphics g, main.java.tetris.model.Piece nextPiece) {
-                int[][] shape = nextPiece.getShape();
-                Color color = nextPiece.getColor();
-
-                int pieceWidth = shape[0].length;
-                int pieceHeight = shape.length;
-                int offsetX = (getWidth() - pieceWidth * CELL_SIZE) / 2;
-                int offsetY = (getHeight() - pieceHeight * CELL_SIZE) / 2;
-
-                for (int i = 0; i < pieceHeight; i++) {
-                    for (int j = 0; j < pieceWidth; j++) {
-                        if (shape[i][j] != 0) {
-                            int x = offsetX + j * CELL_SIZE;
-                            int y = offsetY + i * CELL_SIZE;
-                            g.setColor(color);
-                            g.fillRect(x, y, CELL_SIZE, CELL_SIZE);
-                            g.setColor(color.darker());
-                            g.drawRect(x, y, CELL_SIZE, CELL_SIZE);
-                        }
-                    }
+                PieceOrientation orientation = nextPiece.getOrientation();
+                Image tile = TileAtlas.getShared().getTile(nextPiece.getType(), CELL_SIZE);
+
+                int offsetX = (getWidth() - orientation.getWidth() * CELL_SIZE) / 2;
+                int offsetY = (getHeight() - orientation.getHeight() * CELL_SIZE) / 2;
+
+                for (int i = 0; i < orientation.getCellCount(); i++) {
+                    g.drawImage(tile, offsetX + orientation.getCellX(i) * CELL_SIZE,
+                            offsetY + orientation.getCellY(i) * CELL_SIZE, null);
                 }
             }
         };
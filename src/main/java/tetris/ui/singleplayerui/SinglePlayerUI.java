@@ -29,6 +29,7 @@ import main.java.tetris.utility.ButtonFactory;
 import main.java.tetris.ui.startmenu.StartMenu;
 import main.java.tetris.mechanics.GameController;
 import main.java.tetris.ui.components.GameBoardUI;
+import main.java.tetris.ui.components.TileAtlas;
 
 import javax.swing.*;
 import java.awt.*;
@@ -68,12 +69,8 @@ public class SinglePlayerUI {
 
         // Add an action listener to the button to return to the main menu
         backButton.addActionListener(e -> {
-            // Stop the game timer before navigating away
-            if (gameController.getTimer() != null) { // Ensure the timer exists
-                gameController.getTimer().stop(); // Stop the timer
-            }
-
-            gameController.resetGame(); // Reset the game state to ensure everything is cleared
+            // Stop the game loop before navigating away
+            gameController.stop();
 
             // Navigate back to the main menu
             JFrame frame = (JFrame) SwingUtilities.getWindowAncestor(parent);
@@ -122,27 +119,16 @@ public class SinglePlayerUI {
             }
 
             private void drawNextPiece(Graphics g, Piece nextPiece) {
-                int[][] shape = nextPiece.getShape();
-                Color color = nextPiece.getColor();
+                PieceOrientation orientation = nextPiece.getOrientation();
+                Image tile = TileAtlas.getShared().getTile(nextPiece.getType(), CELL_SIZE);
 
                 // Center the piece in the panel
-                int pieceWidth = shape[0].length;
-                int pieceHeight = shape.length;
-                int offsetX = (getWidth() - pieceWidth * CELL_SIZE) / 2;
-                int offsetY = (getHeight() - pieceHeight * CELL_SIZE) / 2;
-
-                for (int i = 0; i < pieceHeight; i++) {
-                    for (int j = 0; j < pieceWidth; j++) {
-                        if (shape[i][j] != 0) {
-                            int x = offsetX + j * CELL_SIZE;
-                            int y = offsetY + i * CELL_SIZE;
-
-                            g.setColor(color);
-                            g.fillRect(x, y, CELL_SIZE, CELL_SIZE);
-                            g.setColor(color.darker());
-                            g.drawRect(x, y, CELL_SIZE, CELL_SIZE);
-                        }
-                    }
+                int offsetX = (getWidth() - orientation.getWidth() * CELL_SIZE) / 2;
+                int offsetY = (getHeight() - orientation.getHeight() * CELL_SIZE) / 2;
+
+                for (int i = 0; i < orientation.getCellCount(); i++) {
+                    g.drawImage(tile, offsetX + orientation.getCellX(i) * CELL_SIZE,
+                            offsetY + orientation.getCellY(i) * CELL_SIZE, null);
                 }
             }
         };
@@ -15,13 +15,15 @@
  * Dependencies:
  *   - Java AWT and Swing libraries for handling UI events
  *   - ButtonAction enum for defining button actions
- *   - SinglePlayer for single-player game mode
+ *   - SinglePlayer for single-player game mode, on the board size from GameSettings
+ *   - MultiPlayer for multiplayer game mode, with the bot slots from GameSettings
  *   - Options for the options menu
  */
 
 package main.java.tetris.ui.startmenu;
 
 import main.java.tetris.Game.Credits;
+import main.java.tetris.Game.GameSettings;
 import main.java.tetris.Game.MultiPlayer;
 import main.java.tetris.Game.Options;
 import main.java.tetris.Game.SinglePlayer;
@@ -48,14 +50,16 @@ public class StartMenuActionHandler implements ActionListener {
                 case SINGLEPLAYER -> {
                     JFrame frame = (JFrame) SwingUtilities.getWindowAncestor(startMenu);
                     frame.getContentPane().removeAll();
-                    frame.getContentPane().add(new SinglePlayer());
+                    frame.getContentPane().add(new SinglePlayer(GameSettings.getBoardWidth(),
+                            GameSettings.getBoardHeight()));
                     frame.revalidate();
                     frame.repaint();
                 }
                 case MULTIPLAYER -> {
                     JFrame frame = (JFrame) SwingUtilities.getWindowAncestor(startMenu);
                     frame.getContentPane().removeAll();
-                    frame.getContentPane().add(new MultiPlayer());
+                    frame.getContentPane().add(new MultiPlayer(GameSettings.isPlayer1Bot(),
+                            GameSettings.isPlayer2Bot()));
                     frame.revalidate();
                     frame.repaint();
                 }
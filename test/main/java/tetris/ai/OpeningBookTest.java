@@ -0,0 +1,100 @@
+/*
+ * OpeningBookTest.java
+ *
+ * Checks that a book written by OpeningBook.Builder reads back with the same entries, that
+ * rewriting a book replaces it, and that a file which is not a book loads as an empty book.
+ *
+ * Author: Justin Morgan
+ * Last Updated Date: 12/09/2024
+ */
+
+package main.java.tetris.ai;
+
+import main.java.tetris.model.GameBoard;
+import main.java.tetris.model.PieceType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OpeningBookTest {
+
+    private static final int QUEUE_LENGTH = 2;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void writtenBookReadsBackEveryEntry() throws IOException {
+        MoveGenerator generator = new MoveGenerator();
+        GameBoard board = new GameBoard();
+        board.setCell(0, 19, 1);
+        board.setCell(9, 19, 1);
+
+        // One entry per queue, each storing the last reachable placement of the first piece
+        OpeningBook.Builder builder = new OpeningBook.Builder(board.getWidth(), board.getHeight(), QUEUE_LENGTH, 100);
+        PieceType[][] queues = new PieceType[PieceType.count()][];
+        Placement[] stored = new Placement[queues.length];
+        for (int i = 0; i < queues.length; i++) {
+            queues[i] = new PieceType[] {PieceType.fromIndex(i), PieceType.fromIndex((i + 3) % queues.length)};
+            List<Placement> placements = generator.generate(board, queues[i][0]);
+            stored[i] = placements.get(placements.size() - 1);
+            assertTrue(builder.add(board, queues[i], stored[i]));
+        }
+        Path file = directory.resolve("book.bin");
+        builder.write(file);
+
+        OpeningBook book = OpeningBook.open(file);
+        assertEquals(queues.length, book.size());
+        assertEquals(QUEUE_LENGTH, book.getQueueLength());
+        for (int i = 0; i < queues.length; i++) {
+            Placement found = book.lookup(board, queues[i], generator);
+            assertNotNull(found, "entry " + i);
+            assertEquals(stored[i].getType(), found.getType());
+            assertEquals(stored[i].getRotation(), found.getRotation());
+            assertEquals(stored[i].getX(), found.getX());
+            assertEquals(stored[i].getY(), found.getY());
+        }
+
+        // A queue or board that was never added misses
+        assertNull(book.lookup(board, new PieceType[] {PieceType.I, PieceType.I}, generator));
+        assertNull(book.lookup(new GameBoard(), queues[0], generator));
+    }
+
+    @Test
+    void rewritingABookReplacesTheFile() throws IOException {
+        GameBoard board = new GameBoard();
+        PieceType[] queue = {PieceType.O, PieceType.T};
+        List<Placement> placements = new MoveGenerator().generate(board, PieceType.O);
+        Path file = directory.resolve("book.bin");
+        assertNotEquals(placements.get(0).getX(), placements.get(placements.size() - 1).getX());
+
+        OpeningBook.Builder first = new OpeningBook.Builder(board.getWidth(), board.getHeight(), QUEUE_LENGTH, 10);
+        first.add(board, queue, placements.get(0));
+        first.write(file);
+        OpeningBook.Builder second = new OpeningBook.Builder(board.getWidth(), board.getHeight(), QUEUE_LENGTH, 10);
+        second.add(board, queue, placements.get(placements.size() - 1));
+        second.write(file);
+
+        Placement found = OpeningBook.open(file).lookup(board, queue, new MoveGenerator());
+        assertNotNull(found);
+        assertEquals(placements.get(placements.size() - 1).getX(), found.getX());
+        assertFalse(Files.exists(directory.resolve("book.bin.tmp")), "temporary file left behind");
+    }
+
+    @Test
+    void invalidOrMissingFileLoadsAsEmptyBook() throws IOException {
+        Path junk = directory.resolve("junk.bin");
+        Files.write(junk, new byte[64]); // Long enough for a header, but without the magic number
+        OpeningBook book = OpeningBook.open(junk);
+        assertEquals(0, book.size());
+        assertNull(book.lookup(new GameBoard(), new PieceType[] {PieceType.I, PieceType.O}, new MoveGenerator()));
+
+        assertEquals(0, OpeningBook.open(directory.resolve("missing.bin")).size());
+    }
+}
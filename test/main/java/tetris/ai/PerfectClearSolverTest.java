@@ -0,0 +1,98 @@
+/*
+ * PerfectClearSolverTest.java
+ *
+ * Checks PerfectClearSolver on small boards whose answer is known: solutions must really empty
+ * the board when played in order, and boards that cannot be cleared with the given pieces must
+ * come back as null.
+ *
+ * Author: Justin Morgan
+ * Last Updated Date: 12/09/2024
+ */
+
+package main.java.tetris.ai;
+
+import main.java.tetris.model.GameBoard;
+import main.java.tetris.model.PieceType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PerfectClearSolverTest {
+
+    private static final int BOTTOM = 19;   // Floor row of the standard 10x20 board
+
+    @Test
+    void emptyBoardNeedsNoPieces() {
+        List<Placement> solution = new PerfectClearSolver().solve(new GameBoard(), new PieceType[] {PieceType.I}, 1);
+        assertNotNull(solution);
+        assertTrue(solution.isEmpty());
+    }
+
+    @Test
+    void flatIFillsAFourWideGap() {
+        GameBoard board = new GameBoard();
+        fill(board, BOTTOM, 4, 10);
+        assertClears(board, new PieceType[] {PieceType.I}, 1, 1);
+    }
+
+    @Test
+    void oFillsATwoByTwoGapAcrossTwoRows() {
+        GameBoard board = new GameBoard();
+        fill(board, BOTTOM, 0, 4);
+        fill(board, BOTTOM, 6, 10);
+        fill(board, BOTTOM - 1, 0, 4);
+        fill(board, BOTTOM - 1, 6, 10);
+        assertClears(board, new PieceType[] {PieceType.O}, 1, 1);
+    }
+
+    @Test
+    void twoPiecesFillAnEightWideGap() {
+        GameBoard board = new GameBoard();
+        fill(board, BOTTOM, 8, 10);
+        assertNull(new PerfectClearSolver().solve(board, new PieceType[] {PieceType.I, PieceType.I}, 1));
+        assertClears(board, new PieceType[] {PieceType.I, PieceType.I}, 2, 2);
+    }
+
+    @Test
+    void wrongPieceCannotClear() {
+        GameBoard board = new GameBoard();
+        fill(board, BOTTOM, 4, 10);
+        assertNull(new PerfectClearSolver().solve(board, new PieceType[] {PieceType.O}, 1));
+        assertNull(new PerfectClearSolver().solve(board, new PieceType[] {PieceType.T}, 1));
+    }
+
+    @Test
+    void cellCountThatNoPieceCountCanCompleteIsUnsolvable() {
+        // Nine filled cells plus any multiple of four never reaches a multiple of ten
+        GameBoard board = new GameBoard();
+        fill(board, BOTTOM, 1, 10);
+        PieceType[] pieces = {PieceType.I, PieceType.O, PieceType.T, PieceType.L, PieceType.J, PieceType.S};
+        assertNull(new PerfectClearSolver().solve(board, pieces, pieces.length));
+    }
+
+    // Solves, then plays the solution on a copy and checks that it uses the expected pieces and empties the board.
+    private static void assertClears(GameBoard board, PieceType[] pieces, int maxPieces, int expectedPieces) {
+        List<Placement> solution = new PerfectClearSolver().solve(board, pieces, maxPieces);
+        assertNotNull(solution, "no solution found");
+        assertEquals(expectedPieces, solution.size());
+
+        GameBoard played = new GameBoard(board.getWidth(), board.getHeight());
+        played.copyFrom(board);
+        for (int i = 0; i < solution.size(); i++) {
+            assertEquals(pieces[i], solution.get(i).getType(), "piece " + i);
+            solution.get(i).applyTo(played);
+        }
+        for (int y = 0; y < played.getHeight(); y++) {
+            assertTrue(played.isRowEmpty(y), "row " + y + " is not empty");
+        }
+    }
+
+    // Fills columns from (inclusive) to to (exclusive) of a row.
+    private static void fill(GameBoard board, int y, int from, int to) {
+        for (int x = from; x < to; x++) {
+            board.setCell(x, y, 1);
+        }
+    }
+}
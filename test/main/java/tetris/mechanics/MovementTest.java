@@ -0,0 +1,96 @@
+/*
+ * MovementTest.java
+ *
+ * Checks Movement's mask-based collision test where it is easiest to get wrong: pieces whose
+ * rows straddle two 64-column occupancy words, and the walls and floor of wide boards.
+ *
+ * Author: Justin Morgan
+ * Last Updated Date: 12/09/2024
+ */
+
+package main.java.tetris.mechanics;
+
+import main.java.tetris.model.GameBoard;
+import main.java.tetris.model.PieceOrientation;
+import main.java.tetris.model.PieceType;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MovementTest {
+
+    private static final int WIDTH = 140;   // Three words per row, the last one partial
+    private static final int HEIGHT = 8;
+
+    @Test
+    void pieceStraddlingTwoWordsCollidesOnEitherSide() {
+        PieceOrientation flatI = PieceOrientation.get(PieceType.I, 0);
+        for (int boundary = GameBoard.WORD_BITS; boundary < WIDTH; boundary += GameBoard.WORD_BITS) {
+            for (int x = boundary - 3; x < boundary; x++) {
+                GameBoard board = new GameBoard(WIDTH, HEIGHT);
+                Movement movement = new Movement(board);
+                assertTrue(movement.canPlace(flatI, x, HEIGHT - 1), "empty row at x " + x);
+
+                // A block in either word under any of the piece's cells must collide
+                for (int cell = x; cell < x + flatI.getWidth(); cell++) {
+                    board.setCell(cell, HEIGHT - 1, 1);
+                    assertFalse(movement.canPlace(flatI, x, HEIGHT - 1), "block at " + cell + ", piece at " + x);
+                    board.setCell(cell, HEIGHT - 1, 0);
+                }
+
+                // Blocks just outside the piece, on both sides of the boundary, must not
+                board.setCell(x - 1, HEIGHT - 1, 1);
+                board.setCell(x + flatI.getWidth(), HEIGHT - 1, 1);
+                assertTrue(movement.canPlace(flatI, x, HEIGHT - 1), "neighbours of x " + x);
+            }
+        }
+    }
+
+    @Test
+    void wallsAndFloorOfAWideBoardAreEnforced() {
+        GameBoard board = new GameBoard(WIDTH, HEIGHT);
+        Movement movement = new Movement(board);
+        for (PieceType type : PieceType.values()) {
+            for (int rotation = 0; rotation < 4; rotation++) {
+                PieceOrientation orientation = PieceOrientation.get(type, rotation);
+                int lastX = WIDTH - orientation.getWidth();
+                int lastY = HEIGHT - orientation.getHeight();
+                assertTrue(movement.canPlace(orientation, lastX, lastY), type + " against the right wall");
+                assertFalse(movement.canPlace(orientation, lastX + 1, lastY), type + " past the right wall");
+                assertFalse(movement.canPlace(orientation, lastX, lastY + 1), type + " below the floor");
+                assertFalse(movement.canPlace(orientation, -1, 0), type + " past the left wall");
+            }
+        }
+    }
+
+    @Test
+    void masksAgreeWithACellByCellCheck() {
+        Random random = new Random(78);
+        GameBoard board = new GameBoard(WIDTH, HEIGHT);
+        Movement movement = new Movement(board);
+        for (int i = 0; i < 2000; i++) {
+            board.setCell(random.nextInt(WIDTH), random.nextInt(HEIGHT), random.nextInt(4) == 0 ? 1 : 0);
+            PieceOrientation orientation = PieceOrientation.get(
+                    PieceType.fromIndex(random.nextInt(PieceType.count())), random.nextInt(4));
+            int x = GameBoard.WORD_BITS - 4 + random.nextInt(8);
+            int y = random.nextInt(HEIGHT - orientation.getHeight() + 1);
+            assertEquals(fitsCellByCell(board, orientation, x, y), movement.canPlace(orientation, x, y),
+                    orientation.getRotation() + " at " + x + "," + y);
+        }
+    }
+
+    // Reference check: every cell of the orientation lands on an empty in-bounds cell.
+    private static boolean fitsCellByCell(GameBoard board, PieceOrientation orientation, int x, int y) {
+        for (int i = 0; i < orientation.getCellCount(); i++) {
+            int cellX = x + orientation.getCellX(i);
+            int cellY = y + orientation.getCellY(i);
+            if (cellX < 0 || cellX >= board.getWidth() || cellY < 0 || cellY >= board.getHeight()
+                    || board.getCell(cellX, cellY) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * PieceGeneratorTest.java
+ *
+ * Checks that every generator mode is deterministic for a fixed seed, that reset replays the
+ * sequence, and that the 7-bag deals each piece type exactly once per bag.
+ *
+ * Author: Justin Morgan
+ * Last Updated Date: 12/09/2024
+ */
+
+package main.java.tetris.mechanics;
+
+import main.java.tetris.model.PieceType;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PieceGeneratorTest {
+
+    private static final int PIECES = 1000;
+    private static final long SEED = 20241209L;
+
+    @Test
+    void sameSeedGivesSameSequence() {
+        for (PieceGenerator.Mode mode : PieceGenerator.Mode.values()) {
+            assertArrayEquals(deal(PieceGenerator.create(mode, SEED)), deal(PieceGenerator.create(mode, SEED)),
+                    mode + " is not deterministic");
+        }
+    }
+
+    @Test
+    void resetReplaysTheSequence() {
+        for (PieceGenerator.Mode mode : PieceGenerator.Mode.values()) {
+            PieceGenerator generator = PieceGenerator.create(mode, SEED);
+            PieceType[] first = deal(generator);
+            generator.reset(SEED);
+            assertArrayEquals(first, deal(generator), mode + " reset did not replay");
+        }
+    }
+
+    @Test
+    void differentSeedsGiveDifferentSequences() {
+        for (PieceGenerator.Mode mode : PieceGenerator.Mode.values()) {
+            assertFalse(Arrays.equals(deal(PieceGenerator.create(mode, SEED)),
+                    deal(PieceGenerator.create(mode, SEED + 1))), mode + " ignores its seed");
+        }
+    }
+
+    @Test
+    void sevenBagDealsEveryTypeOncePerBag() {
+        PieceType[] pieces = deal(PieceGenerator.create(PieceGenerator.Mode.SEVEN_BAG, SEED));
+        int bag = PieceType.count();
+        for (int start = 0; start + bag <= pieces.length; start += bag) {
+            Set<PieceType> seen = EnumSet.noneOf(PieceType.class);
+            for (int i = start; i < start + bag; i++) {
+                assertTrue(seen.add(pieces[i]), "repeat in the bag starting at " + start);
+            }
+        }
+    }
+
+    // Draws PIECES pieces from a generator.
+    private static PieceType[] deal(PieceGenerator generator) {
+        PieceType[] pieces = new PieceType[PIECES];
+        for (int i = 0; i < PIECES; i++) {
+            pieces[i] = generator.next();
+        }
+        return pieces;
+    }
+}
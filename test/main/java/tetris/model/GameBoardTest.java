@@ -0,0 +1,226 @@
+/*
+ * GameBoardTest.java
+ *
+ * Checks that the stack profile and hash GameBoard maintains incrementally always match what a
+ * full rescan of the cells gives, through random edits, line clears, copies and restores, and
+ * that clearFullRows compacts the board the same way as clearing one row at a time.
+ *
+ * Author: Lauren Greg
+ * Last Updated Date: 12/09/2024
+ */
+
+package main.java.tetris.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameBoardTest {
+
+    // Widths below, at and across the 64-column word boundary
+    private static final int[] WIDTHS = {ModelConstants.MIN_BOARD_SIZE, 10, 64, 70, 130};
+    private static final int EDITS = 2000;
+
+    @Test
+    void incrementalProfileMatchesRescanThroughRandomEdits() {
+        Random random = new Random(12);
+        for (int width : WIDTHS) {
+            GameBoard board = new GameBoard(width, 24);
+            for (int i = 0; i < EDITS; i++) {
+                int x = random.nextInt(width);
+                int y = random.nextInt(board.getHeight());
+                // Bias toward filling so that columns grow tall enough to hold holes
+                board.setCell(x, y, random.nextInt(3) == 0 ? 0 : 1 + random.nextInt(PieceType.count()));
+                assertMatchesRescan(board);
+            }
+        }
+    }
+
+    @Test
+    void incrementalProfileMatchesRescanAfterLineClears() {
+        Random random = new Random(34);
+        for (int width : WIDTHS) {
+            GameBoard board = new GameBoard(width, 16);
+            for (int i = 0; i < EDITS; i++) {
+                int y = random.nextInt(board.getHeight());
+                if (random.nextInt(4) == 0) {
+                    fillRow(board, y);
+                } else {
+                    board.setCell(random.nextInt(width), y, 1 + random.nextInt(PieceType.count()));
+                }
+                if (random.nextInt(8) == 0) {
+                    board.clearFullRows();
+                }
+                assertMatchesRescan(board);
+            }
+        }
+    }
+
+    @Test
+    void copyAndRestoreCarryTheProfileAndHash() {
+        Random random = new Random(56);
+        GameBoard board = new GameBoard(70, 20);
+        for (int i = 0; i < 300; i++) {
+            board.setCell(random.nextInt(70), 4 + random.nextInt(16), 1);
+        }
+        BoardSnapshot saved = board.snapshot();
+        long savedHash = board.getHash();
+
+        GameBoard copy = new GameBoard(70, 20);
+        copy.copyFrom(board);
+        assertMatchesRescan(copy);
+        assertEquals(savedHash, copy.getHash());
+
+        board.clearBoard();
+        board.setCell(0, 19, 1);
+        board.restore(saved);
+        assertMatchesRescan(board);
+        assertEquals(savedHash, board.getHash());
+    }
+
+    @Test
+    void hashDependsOnlyOnOccupiedCells() {
+        GameBoard first = new GameBoard();
+        GameBoard second = new GameBoard();
+        first.setCell(3, 19, 1);
+        first.setCell(4, 18, 2);
+        second.setCell(4, 18, 5);
+        second.setCell(3, 19, 7);
+        assertEquals(first.getHash(), second.getHash());
+
+        second.setCell(4, 18, 0);
+        assertNotEquals(first.getHash(), second.getHash());
+        second.clearBoard();
+        assertEquals(new GameBoard().getHash(), second.getHash());
+    }
+
+    @Test
+    void clearFullRowsCompactsLikeOneRowAtATime() {
+        Random random = new Random(90);
+        for (int width : WIDTHS) {
+            for (int trial = 0; trial < 200; trial++) {
+                GameBoard board = new GameBoard(width, 12);
+                for (int y = 0; y < board.getHeight(); y++) {
+                    if (random.nextInt(3) == 0) {
+                        fillRow(board, y);
+                    }
+                    for (int x = 0; x < width; x++) {
+                        if (random.nextInt(3) == 0) {
+                            board.setCell(x, y, 1 + random.nextInt(PieceType.count()));
+                        }
+                    }
+                }
+                byte[] expected = clearOneRowAtATime(board);
+                int full = 0;
+                for (int y = 0; y < board.getHeight(); y++) {
+                    full += board.isRowFull(y) ? 1 : 0;
+                }
+
+                LineClearResult result = board.clearFullRows();
+                assertEquals(full, result.getCount());
+                for (int i = 1; i < result.getCount(); i++) {
+                    assertTrue(result.getClearedRow(i) < result.getClearedRow(i - 1), "cleared rows run bottom-up");
+                }
+                assertArrayEquals(expected, board.copyCells());
+                assertMatchesRescan(board);
+            }
+        }
+    }
+
+    @Test
+    void clearFullRowsInARangeLeavesOtherFullRows() {
+        GameBoard board = new GameBoard(10, 8);
+        fillRow(board, 1);
+        fillRow(board, 4);
+        fillRow(board, 6);
+        board.setCell(2, 5, 3);
+        board.setCell(7, 3, 4);
+
+        LineClearResult result = board.clearFullRows(4, 7);
+        assertEquals(2, result.getCount());
+        assertEquals(6, result.getClearedRow(0));
+        assertEquals(4, result.getClearedRow(1));
+
+        // Rows 0-3 drop by two and row 5 drops by one; the full row outside the range survives
+        assertTrue(board.isRowFull(3));
+        assertEquals(4, board.getCell(7, 5));
+        assertEquals(3, board.getCell(2, 6));
+        assertTrue(board.isRowEmpty(7));
+        assertTrue(board.isRowEmpty(0) && board.isRowEmpty(1));
+        assertMatchesRescan(board);
+
+        assertEquals(LineClearResult.NONE, board.clearFullRows(4, 7));
+    }
+
+    // Clears the board's full rows the simple way, one row shift at a time, on a copy of its cells.
+    private static byte[] clearOneRowAtATime(GameBoard board) {
+        int width = board.getWidth();
+        byte[] cells = board.copyCells();
+        int y = board.getHeight() - 1;
+        while (y >= 0) {
+            boolean full = true;
+            for (int x = 0; x < width; x++) {
+                full &= cells[y * width + x] != 0;
+            }
+            if (!full) {
+                y--;
+                continue;
+            }
+            System.arraycopy(cells, 0, cells, width, y * width);
+            Arrays.fill(cells, 0, width, (byte) 0);
+        }
+        return cells;
+    }
+
+    // Fills every cell of a row.
+    private static void fillRow(GameBoard board, int y) {
+        for (int x = 0; x < board.getWidth(); x++) {
+            board.setCell(x, y, 1);
+        }
+    }
+
+    // Recomputes heights, holes, row fills, occupancy words and the hash from the cells and compares.
+    private static void assertMatchesRescan(GameBoard board) {
+        int width = board.getWidth();
+        int height = board.getHeight();
+        int totalHoles = 0;
+        long hash = 0L;
+        for (int x = 0; x < width; x++) {
+            int top = 0;
+            while (top < height && board.getCell(x, top) == 0) {
+                top++;
+            }
+            int holes = 0;
+            for (int y = top + 1; y < height; y++) {
+                if (board.getCell(x, y) == 0) {
+                    holes++;
+                }
+            }
+            assertEquals(height - top, board.getColumnHeight(x), "height of column " + x);
+            assertEquals(holes, board.getColumnHoles(x), "holes in column " + x);
+            totalHoles += holes;
+        }
+        assertEquals(totalHoles, board.getHoleCount(), "hole count");
+
+        for (int y = 0; y < height; y++) {
+            int fill = 0;
+            long[] words = new long[board.getWordsPerRow()];
+            for (int x = 0; x < width; x++) {
+                if (board.getCell(x, y) != 0) {
+                    fill++;
+                    words[x / GameBoard.WORD_BITS] |= 1L << (x % GameBoard.WORD_BITS);
+                    hash ^= Zobrist.cellKey(y * width + x);
+                }
+            }
+            assertEquals(fill, board.getRowFill(y), "fill of row " + y);
+            assertEquals(fill == width, board.isRowFull(y), "full flag of row " + y);
+            for (int w = 0; w < words.length; w++) {
+                assertEquals(words[w], board.getRowWord(y, w), "word " + w + " of row " + y);
+            }
+        }
+        assertEquals(hash, board.getHash(), "hash");
+    }
+}